@@ -0,0 +1,520 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the Java SE Double-ended Queue (Deque) interface
+ * (<code>java.util.Deque</code>) based on a growable circular array. This
+ * class offers the same contract of <code>ASDL2021Deque</code> and can be used
+ * in its place: the deque does not have capacity restrictions, duplicated
+ * elements are permitted while <code>null</code> elements are not permitted
+ * and the iterators are fail-fast.
+ *
+ * Differently from <code>ASDL2021Deque</code> no object is allocated for each
+ * inserted element: the elements are stored contiguously in an array that is
+ * doubled only when it is full, so insertions and removals at both ends do not
+ * produce garbage and iterations are cache-friendly. The array can contain at
+ * most 2^30 elements. <code>removeAll</code>, <code>retainAll</code> and
+ * <code>removeIf</code> compact the array in a single pass.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class ASDL2021ArrayDeque<E> implements Deque<E> {
+
+    /*
+     * Initial capacity of the circular array, it must be a power of two
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /*
+     * Maximum capacity of the circular array, the greatest power of two that
+     * is a valid array length
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /*
+     * Circular array containing the elements of this deque. Its length is
+     * always a power of two, so indexes can be wrapped with a bit mask.
+     */
+    private Object[] elements;
+
+    /*
+     * Index of the first element of this deque in the circular array
+     */
+    private int head;
+
+    /*
+     * Current number of elements in this deque
+     */
+    private int size;
+
+    /*
+     * Number of changes in the deque.
+     */
+    private int actualChanges;
+
+    /**
+     * Constructs an empty deque.
+     */
+    public ASDL2021ArrayDeque() {
+        this.elements = new Object[INITIAL_CAPACITY];
+        this.head = 0;
+        this.size = 0;
+        this.actualChanges = 0;
+    }
+
+    /**
+     * Constructs an empty deque able to contain at least the specified number
+     * of elements without resizing the underlying array.
+     *
+     * @param initialCapacity
+     *                            the expected number of elements
+     * @throws IllegalArgumentException
+     *                                      if initialCapacity is negative or
+     *                                      greater than 2^30
+     */
+    public ASDL2021ArrayDeque(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("the capacity is negative.");
+        if (initialCapacity > MAX_CAPACITY)
+            throw new IllegalArgumentException("the capacity is too big.");
+        //arrotondo la capacità alla potenza di due successiva.
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < initialCapacity)
+            capacity <<= 1;
+        this.elements = new Object[capacity];
+        this.head = 0;
+        this.size = 0;
+        this.actualChanges = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        copyElements(array);
+        return array;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        if (a.length < size)
+            a = (T[]) java.lang.reflect.Array
+                    .newInstance(a.getClass().getComponentType(), size);
+        copyElements(a);
+        if (a.length > size)
+            a[size] = null;
+        return a;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object o : c)
+            if (!this.contains(o))
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        //mi assicuro una sola volta che ci sia spazio per tutti gli elementi.
+        ensureCapacity(size + c.size());
+        for (E o : c) {
+            if (o == null)
+                throw new NullPointerException("the element is null. this list doesn't permit null element.");
+            this.addLast(o);
+        }
+        return !c.isEmpty();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("the collection is null.");
+        return this.removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("the collection is null.");
+        return this.removeIf(item -> !c.contains(item));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        if (filter == null)
+            throw new NullPointerException("the filter is null.");
+        int n = size;
+        int kept = 0;
+        int i = 0;
+        try {
+            //compatto in una sola passata gli elementi da tenere.
+            for (; i < n; i++) {
+                E item = elementAt(index(i));
+                if (!filter.test(item))
+                    elements[index(kept++)] = item;
+            }
+        } finally {
+            //se il filtro lancia un'eccezione tengo gli elementi non ancora esaminati.
+            for (; i < n; i++)
+                elements[index(kept++)] = elements[index(i)];
+            for (int j = kept; j < n; j++)
+                elements[index(j)] = null;
+            if (kept < n) {
+                size = kept;
+                actualChanges++;
+            }
+        }
+        return kept < n;
+    }
+
+    @Override
+    public void clear() {
+        //annullo i riferimenti per permettere al garbage collector di liberarli.
+        for (int i = 0; i < size; i++)
+            elements[index(i)] = null;
+        this.head = 0;
+        this.size = 0;
+        actualChanges++;
+    }
+
+    @Override
+    public void addFirst(E e) {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        ensureCapacity(size + 1);
+        //sposto la testa indietro di una posizione nell'array circolare.
+        head = (head - 1) & (elements.length - 1);
+        elements[head] = e;
+        size++;
+        actualChanges++;
+    }
+
+    @Override
+    public void addLast(E e) {
+        if (e == null)
+            throw new NullPointerException("this element is null.");
+        ensureCapacity(size + 1);
+        elements[index(size)] = e;
+        size++;
+        actualChanges++;
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        this.addFirst(e);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        this.addLast(e);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("the deque is empty.");
+        return this.pollFirst();
+    }
+
+    @Override
+    public E removeLast() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("the deque is empty");
+        return this.pollLast();
+    }
+
+    @Override
+    public E pollFirst() {
+        if (this.isEmpty())
+            return null;
+        E item = elementAt(head);
+        elements[head] = null;
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        actualChanges++;
+        return item;
+    }
+
+    @Override
+    public E pollLast() {
+        if (this.isEmpty())
+            return null;
+        int tail = index(size - 1);
+        E item = elementAt(tail);
+        elements[tail] = null;
+        size--;
+        actualChanges++;
+        return item;
+    }
+
+    @Override
+    public E getFirst() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("this list is empty.");
+        return elementAt(head);
+    }
+
+    @Override
+    public E getLast() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("this list is empty.");
+        return elementAt(index(size - 1));
+    }
+
+    @Override
+    public E peekFirst() {
+        if (this.isEmpty())
+            return null;
+        return elementAt(head);
+    }
+
+    @Override
+    public E peekLast() {
+        if (this.isEmpty())
+            return null;
+        return elementAt(index(size - 1));
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null");
+        for (int i = 0; i < size; i++)
+            if (o.equals(elements[index(i)])) {
+                delete(i);
+                return true;
+            }
+        return false;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null");
+        for (int i = size - 1; i >= 0; i--)
+            if (o.equals(elements[index(i)])) {
+                delete(i);
+                return true;
+            }
+        return false;
+    }
+
+    @Override
+    public boolean add(E e) {
+        this.addLast(e);
+        return true;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return this.offerLast(e);
+    }
+
+    @Override
+    public E remove() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return this.getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(E e) {
+        this.addFirst(e);
+    }
+
+    @Override
+    public E pop() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null.");
+        for (int i = 0; i < size; i++)
+            if (o.equals(elements[index(i)]))
+                return true;
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /*
+     * Returns the position in the circular array of the element having the
+     * given logical position in this deque.
+     */
+    private int index(int logicalIndex) {
+        return (head + logicalIndex) & (elements.length - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(int arrayIndex) {
+        return (E) elements[arrayIndex];
+    }
+
+    /*
+     * Doubles the circular array until it can contain the given number of
+     * elements. The elements are copied so that the head is at position 0.
+     * A minCapacity greater than MAX_CAPACITY, or negative because of an
+     * overflow, can not be reached doubling the array.
+     */
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= elements.length && minCapacity >= 0)
+            return;
+        if (minCapacity < 0 || minCapacity > MAX_CAPACITY)
+            throw new IllegalStateException("the deque is too big.");
+        int newCapacity = elements.length;
+        while (newCapacity < minCapacity)
+            newCapacity <<= 1;
+        Object[] newElements = new Object[newCapacity];
+        copyElements(newElements);
+        this.elements = newElements;
+        this.head = 0;
+    }
+
+    /*
+     * Copies the elements of this deque, in order, at the beginning of the
+     * given array using at most two block copies.
+     */
+    private void copyElements(Object[] destination) {
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, destination, 0, firstPart);
+        System.arraycopy(elements, 0, destination, firstPart, size - firstPart);
+    }
+
+    /*
+     * Removes the element at the given logical position by shifting the
+     * shorter of the two sides of the deque.
+     */
+    private void delete(int logicalIndex) {
+        if (logicalIndex < size / 2) {
+            //sposto in avanti gli elementi che precedono quello eliminato.
+            for (int i = logicalIndex; i > 0; i--)
+                elements[index(i)] = elements[index(i - 1)];
+            elements[head] = null;
+            head = (head + 1) & (elements.length - 1);
+        } else {
+            //sposto indietro gli elementi che seguono quello eliminato.
+            for (int i = logicalIndex; i < size - 1; i++)
+                elements[index(i)] = elements[index(i + 1)];
+            elements[index(size - 1)] = null;
+        }
+        size--;
+        actualChanges++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    /*
+     * Class for implementing an iterator for this deque. The iterator is
+     * fail-safe: it detects if during the iteration a modification to the
+     * original deque was done and, if so, it launches a
+     * <code>ConcurrentModificationException</code> as soon as a call to the
+     * method <code>next()</code> is done.
+     */
+    private class Itr implements Iterator<E> {
+
+        //posizione logica del prossimo elemento da restituire
+        private int cursor;
+        //modifiche attese
+        private int expectedChanges;
+
+        Itr() {
+            this.cursor = 0;
+            this.expectedChanges = ASDL2021ArrayDeque.this.actualChanges;
+        }
+
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        public E next() {
+            //se le modifiche attuali sono diverse da quelle attese lancio un eccezione
+            if (actualChanges != expectedChanges)
+                throw new ConcurrentModificationException("the changes don't match.");
+            if (!this.hasNext())
+                throw new NoSuchElementException("the list has no more elements");
+            return elementAt(index(cursor++));
+        }
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new DescItr();
+    }
+
+    /*
+     * Class for implementing a descendign iterator for this deque. The iterator
+     * is fail-safe: it detects if during the iteration a modification to the
+     * original deque was done and, if so, it launches a
+     * <code>ConcurrentModificationException</code> as soon as a call to the
+     * method <code>next()</code> is done.
+     */
+    private class DescItr implements Iterator<E> {
+
+        //posizione logica del prossimo elemento da restituire
+        private int cursor;
+        //modifiche attese
+        private int expectedChanges;
+
+        DescItr() {
+            this.cursor = size - 1;
+            this.expectedChanges = ASDL2021ArrayDeque.this.actualChanges;
+        }
+
+        public boolean hasNext() {
+            return cursor >= 0 && cursor < size;
+        }
+
+        public E next() {
+            //se le modifiche attuali sono diverse da quelle attese lancio un eccezione
+            if (actualChanges != expectedChanges)
+                throw new ConcurrentModificationException("the changes don't match.");
+            if (!this.hasNext())
+                throw new NoSuchElementException("the list has no more elements");
+            return elementAt(index(cursor--));
+        }
+    }
+}
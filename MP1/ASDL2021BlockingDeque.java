@@ -0,0 +1,866 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Bounded implementation of the Java SE blocking Double-ended Queue interface
+ * (<code>java.util.concurrent.BlockingDeque</code>) based on a double linked
+ * list, like <code>ASDL2021Deque</code>. The deque has a fixed capacity: when
+ * it is full the insertions block (<code>put</code>), fail
+ * (<code>offer</code>) or launch an exception (<code>add</code>), so a slow
+ * consumer can not make the deque grow without limits. Duplicated elements are
+ * permitted while <code>null</code> elements are not permitted.
+ *
+ * The list starts with a dummy node. Insertions at the tail are done holding
+ * only the <i>put lock</i> and removals from the head holding only the <i>take
+ * lock</i>, so in the typical producer/consumer usage, as a FIFO queue, the
+ * producers and the consumers do not contend for the same lock. All the other
+ * operations (insertions at the head, removals from the tail, removals of
+ * internal elements, traversals) hold both locks.
+ *
+ * The iterators are <i>weakly consistent</i>: they work on a copy of the
+ * elements present in the deque at the moment of their creation, they never
+ * launch a <code>ConcurrentModificationException</code> and they do not
+ * support the operation <code>remove()</code>. The bulk removals
+ * (<code>removeAll</code>, <code>retainAll</code> and <code>removeIf</code>)
+ * are done in a single pass over the list.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class ASDL2021BlockingDeque<E> implements BlockingDeque<E> {
+
+    /*
+     * Maximum number of elements in this deque
+     */
+    private final int capacity;
+
+    /*
+     * Current number of elements in this deque. It is atomic because it is
+     * updated holding only one of the two locks.
+     */
+    private final AtomicInteger count;
+
+    /*
+     * Dummy node preceding the first element of the double-linked list. Its
+     * item is always null.
+     */
+    private Node<E> head;
+
+    /*
+     * Pointer to the last node of the double-linked list, equal to head if the
+     * deque is empty
+     */
+    private Node<E> last;
+
+    /*
+     * Lock held by the removals from the head
+     */
+    private final ReentrantLock takeLock;
+
+    /*
+     * Condition for waiting for an element to remove
+     */
+    private final Condition notEmpty;
+
+    /*
+     * Lock held by the insertions at the tail
+     */
+    private final ReentrantLock putLock;
+
+    /*
+     * Condition for waiting for free space
+     */
+    private final Condition notFull;
+
+    /**
+     * Constructs an empty deque with the given capacity.
+     *
+     * @param capacity
+     *                     the maximum number of elements in the deque
+     * @throws IllegalArgumentException
+     *                                      if capacity is not positive
+     */
+    public ASDL2021BlockingDeque(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("the capacity is not positive.");
+        this.capacity = capacity;
+        this.count = new AtomicInteger(0);
+        this.head = this.last = new Node<E>(null);
+        this.takeLock = new ReentrantLock();
+        this.notEmpty = takeLock.newCondition();
+        this.putLock = new ReentrantLock();
+        this.notFull = putLock.newCondition();
+    }
+
+    /*
+     * Class for representing the nodes of the double-linked list used to
+     * implement this deque.
+     */
+    private static class Node<E> {
+        private E item;
+
+        private Node<E> next;
+
+        private Node<E> prev;
+
+        private Node(E element) {
+            this.item = element;
+        }
+    }
+
+    /*
+     * Links a node at the tail. Must be called holding the put lock.
+     */
+    private void linkLast(Node<E> n) {
+        n.prev = last;
+        last.next = n;
+        last = n;
+    }
+
+    /*
+     * Unlinks the first element and returns it. Must be called holding the
+     * take lock when the deque is not empty. The node of the removed element
+     * becomes the new dummy node.
+     */
+    private E unlinkFirst() {
+        Node<E> h = head;
+        Node<E> first = h.next;
+        //stacco il vecchio nodo fittizio.
+        h.next = null;
+        head = first;
+        first.prev = null;
+        E item = first.item;
+        first.item = null;
+        return item;
+    }
+
+    /*
+     * Links a node right after the dummy node. Must be called holding both
+     * locks.
+     */
+    private void linkFirst(Node<E> n) {
+        Node<E> first = head.next;
+        n.prev = head;
+        n.next = first;
+        head.next = n;
+        //caso 1 - la coda era vuota. il nuovo nodo è anche l'ultimo.
+        if (first == null)
+            last = n;
+        //caso 2 - collego il vecchio primo nodo al nuovo.
+        else
+            first.prev = n;
+    }
+
+    /*
+     * Unlinks an element different from the dummy node. Must be called
+     * holding both locks.
+     */
+    private void unlink(Node<E> n) {
+        Node<E> nodoPrima = n.prev;
+        Node<E> nodoDopo = n.next;
+        nodoPrima.next = nodoDopo;
+        if (nodoDopo == null)
+            last = nodoPrima;
+        else
+            nodoDopo.prev = nodoPrima;
+        n.item = null;
+        n.prev = null;
+        n.next = null;
+    }
+
+    /*
+     * Acquires both locks, always in the same order to avoid deadlocks.
+     */
+    private void fullyLock() {
+        putLock.lock();
+        takeLock.lock();
+    }
+
+    /*
+     * Releases both locks.
+     */
+    private void fullyUnlock() {
+        takeLock.unlock();
+        putLock.unlock();
+    }
+
+    /*
+     * Wakes up a thread waiting for an element. Called by the insertions at
+     * the tail, that do not hold the take lock.
+     */
+    private void signalNotEmpty() {
+        takeLock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    /*
+     * Wakes up a thread waiting for free space. Called by the removals from
+     * the head, that do not hold the put lock.
+     */
+    private void signalNotFull() {
+        putLock.lock();
+        try {
+            notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    /*
+     * Wakes up the waiting threads after an operation done holding both
+     * locks.
+     */
+    private void signalBoth() {
+        int c = count.get();
+        if (c > 0)
+            notEmpty.signal();
+        if (c < capacity)
+            notFull.signal();
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        if (e == null)
+            throw new NullPointerException("this element is null.");
+        if (count.get() == capacity)
+            return false;
+        int c = -1;
+        Node<E> n = new Node<E>(e);
+        putLock.lock();
+        try {
+            if (count.get() < capacity) {
+                linkLast(n);
+                c = count.getAndIncrement();
+                //se c'è ancora spazio sveglio un altro produttore.
+                if (c + 1 < capacity)
+                    notFull.signal();
+            }
+        } finally {
+            putLock.unlock();
+        }
+        //se la coda era vuota sveglio un consumatore.
+        if (c == 0)
+            signalNotEmpty();
+        return c >= 0;
+    }
+
+    @Override
+    public void putLast(E e) throws InterruptedException {
+        if (e == null)
+            throw new NullPointerException("this element is null.");
+        int c;
+        Node<E> n = new Node<E>(e);
+        putLock.lockInterruptibly();
+        try {
+            //aspetto che si liberi spazio.
+            while (count.get() == capacity)
+                notFull.await();
+            linkLast(n);
+            c = count.getAndIncrement();
+            if (c + 1 < capacity)
+                notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0)
+            signalNotEmpty();
+    }
+
+    @Override
+    public boolean offerLast(E e, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        if (e == null)
+            throw new NullPointerException("this element is null.");
+        long nanos = unit.toNanos(timeout);
+        int c;
+        Node<E> n = new Node<E>(e);
+        putLock.lockInterruptibly();
+        try {
+            //aspetto che si liberi spazio al massimo per il tempo indicato.
+            while (count.get() == capacity) {
+                if (nanos <= 0)
+                    return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            linkLast(n);
+            c = count.getAndIncrement();
+            if (c + 1 < capacity)
+                notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0)
+            signalNotEmpty();
+        return true;
+    }
+
+    @Override
+    public E pollFirst() {
+        if (count.get() == 0)
+            return null;
+        E item = null;
+        int c = -1;
+        takeLock.lock();
+        try {
+            if (count.get() > 0) {
+                item = unlinkFirst();
+                c = count.getAndDecrement();
+                //se ci sono ancora elementi sveglio un altro consumatore.
+                if (c > 1)
+                    notEmpty.signal();
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        //se la coda era piena sveglio un produttore.
+        if (c == capacity)
+            signalNotFull();
+        return item;
+    }
+
+    @Override
+    public E takeFirst() throws InterruptedException {
+        E item;
+        int c;
+        takeLock.lockInterruptibly();
+        try {
+            //aspetto che ci sia un elemento.
+            while (count.get() == 0)
+                notEmpty.await();
+            item = unlinkFirst();
+            c = count.getAndDecrement();
+            if (c > 1)
+                notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == capacity)
+            signalNotFull();
+        return item;
+    }
+
+    @Override
+    public E pollFirst(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        E item;
+        int c;
+        takeLock.lockInterruptibly();
+        try {
+            //aspetto un elemento al massimo per il tempo indicato.
+            while (count.get() == 0) {
+                if (nanos <= 0)
+                    return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            item = unlinkFirst();
+            c = count.getAndDecrement();
+            if (c > 1)
+                notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+        if (c == capacity)
+            signalNotFull();
+        return item;
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        fullyLock();
+        try {
+            if (count.get() == capacity)
+                return false;
+            linkFirst(new Node<E>(e));
+            count.getAndIncrement();
+            signalBoth();
+            return true;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public void putFirst(E e) throws InterruptedException {
+        if (!this.offerFirst(e, Long.MAX_VALUE, TimeUnit.NANOSECONDS))
+            throw new IllegalStateException("the deque is full.");
+    }
+
+    @Override
+    public boolean offerFirst(E e, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        long nanos = unit.toNanos(timeout);
+        Node<E> n = new Node<E>(e);
+        //aspetto lo spazio tenendo solo il lock di inserimento, poi prendo
+        //anche quello di estrazione rispettando l'ordine di fullyLock().
+        putLock.lockInterruptibly();
+        try {
+            while (count.get() == capacity) {
+                if (nanos <= 0)
+                    return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            takeLock.lock();
+            try {
+                linkFirst(n);
+                count.getAndIncrement();
+                signalBoth();
+            } finally {
+                takeLock.unlock();
+            }
+        } finally {
+            putLock.unlock();
+        }
+        return true;
+    }
+
+    @Override
+    public E pollLast() {
+        fullyLock();
+        try {
+            if (count.get() == 0)
+                return null;
+            Node<E> n = last;
+            E item = n.item;
+            unlink(n);
+            count.getAndDecrement();
+            signalBoth();
+            return item;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public E takeLast() throws InterruptedException {
+        return this.pollLast(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public E pollLast(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        while (true) {
+            E item = this.pollLast();
+            if (item != null)
+                return item;
+            //la coda è vuota: aspetto un elemento tenendo solo il lock di
+            //estrazione, poi riprovo prendendo entrambi i lock.
+            takeLock.lockInterruptibly();
+            try {
+                while (count.get() == 0) {
+                    if (nanos <= 0)
+                        return null;
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+            } finally {
+                takeLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void addFirst(E e) {
+        if (!this.offerFirst(e))
+            throw new IllegalStateException("the deque is full.");
+    }
+
+    @Override
+    public void addLast(E e) {
+        if (!this.offerLast(e))
+            throw new IllegalStateException("the deque is full.");
+    }
+
+    @Override
+    public E removeFirst() {
+        E item = this.pollFirst();
+        if (item == null)
+            throw new NoSuchElementException("the deque is empty.");
+        return item;
+    }
+
+    @Override
+    public E removeLast() {
+        E item = this.pollLast();
+        if (item == null)
+            throw new NoSuchElementException("the deque is empty");
+        return item;
+    }
+
+    @Override
+    public E getFirst() {
+        E item = this.peekFirst();
+        if (item == null)
+            throw new NoSuchElementException("this list is empty.");
+        return item;
+    }
+
+    @Override
+    public E getLast() {
+        E item = this.peekLast();
+        if (item == null)
+            throw new NoSuchElementException("this list is empty.");
+        return item;
+    }
+
+    @Override
+    public E peekFirst() {
+        if (count.get() == 0)
+            return null;
+        takeLock.lock();
+        try {
+            Node<E> first = head.next;
+            return first == null ? null : first.item;
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    @Override
+    public E peekLast() {
+        fullyLock();
+        try {
+            return count.get() == 0 ? null : last.item;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public boolean add(E e) {
+        this.addLast(e);
+        return true;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return this.offerLast(e);
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        this.putLast(e);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return this.offerLast(e, timeout, unit);
+    }
+
+    @Override
+    public E remove() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return this.pollFirst();
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        return this.takeFirst();
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.pollFirst(timeout, unit);
+    }
+
+    @Override
+    public E element() {
+        return this.getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return this.peekFirst();
+    }
+
+    @Override
+    public void push(E e) {
+        this.addFirst(e);
+    }
+
+    @Override
+    public E pop() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - count.get();
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count.get() == 0;
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null");
+        fullyLock();
+        try {
+            for (Node<E> pointer = head.next; pointer != null; pointer = pointer.next)
+                if (o.equals(pointer.item)) {
+                    unlink(pointer);
+                    count.getAndDecrement();
+                    signalBoth();
+                    return true;
+                }
+            return false;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null");
+        fullyLock();
+        try {
+            for (Node<E> pointer = last; pointer != head; pointer = pointer.prev)
+                if (o.equals(pointer.item)) {
+                    unlink(pointer);
+                    count.getAndDecrement();
+                    signalBoth();
+                    return true;
+                }
+            return false;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return this.removeFirstOccurrence(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null.");
+        fullyLock();
+        try {
+            for (Node<E> pointer = head.next; pointer != null; pointer = pointer.next)
+                if (o.equals(pointer.item))
+                    return true;
+            return false;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object o : c)
+            if (!this.contains(o))
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        if (c == this)
+            throw new IllegalArgumentException("a deque can not be added to itself.");
+        for (E o : c)
+            this.addLast(o);
+        return !c.isEmpty();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("the collection is null.");
+        return this.removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("the collection is null.");
+        return this.removeIf(item -> !c.contains(item));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        if (filter == null)
+            throw new NullPointerException("the filter is null.");
+        boolean removed = false;
+        fullyLock();
+        try {
+            Node<E> pointer = head.next;
+            while (pointer != null) {
+                Node<E> nextNode = pointer.next;
+                if (filter.test(pointer.item)) {
+                    unlink(pointer);
+                    count.getAndDecrement();
+                    removed = true;
+                }
+                pointer = nextNode;
+            }
+            if (removed)
+                signalBoth();
+            return removed;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        fullyLock();
+        try {
+            //annullo i riferimenti dei nodi per aiutare il garbage collector.
+            Node<E> pointer = head.next;
+            while (pointer != null) {
+                Node<E> nextNode = pointer.next;
+                pointer.item = null;
+                pointer.prev = null;
+                pointer.next = null;
+                pointer = nextNode;
+            }
+            head.next = null;
+            last = head;
+            count.set(0);
+            notFull.signalAll();
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return this.drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == null)
+            throw new NullPointerException("the collection is null.");
+        if (c == this)
+            throw new IllegalArgumentException("a deque can not be drained to itself.");
+        if (maxElements <= 0)
+            return 0;
+        int transferred = 0;
+        boolean wasFull = false;
+        takeLock.lock();
+        try {
+            int n = Math.min(maxElements, count.get());
+            wasFull = count.get() == capacity;
+            try {
+                //trasferisco gli elementi tenendo solo il lock di estrazione.
+                while (transferred < n) {
+                    c.add(head.next.item);
+                    unlinkFirst();
+                    transferred++;
+                }
+            } finally {
+                //aggiorno il contatore una sola volta.
+                if (transferred > 0)
+                    count.getAndAdd(-transferred);
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        if (wasFull && transferred > 0)
+            signalNotFull();
+        return transferred;
+    }
+
+    /*
+     * Copies the current elements of this deque in a list.
+     */
+    private ArrayList<E> snapshot() {
+        fullyLock();
+        try {
+            ArrayList<E> list = new ArrayList<E>(count.get());
+            for (Node<E> pointer = head.next; pointer != null; pointer = pointer.next)
+                list.add(pointer.item);
+            return list;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        return snapshot().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return snapshot().toArray(a);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new SnapshotItr(snapshot(), true);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new SnapshotItr(snapshot(), false);
+    }
+
+    /*
+     * Class for implementing the weakly consistent iterators of this deque on
+     * a copy of its elements.
+     */
+    private class SnapshotItr implements Iterator<E> {
+
+        //copia degli elementi
+        private final ArrayList<E> elements;
+        //true se l'iteratore va dalla testa alla coda
+        private final boolean ascending;
+        //posizione del prossimo elemento
+        private int cursor;
+
+        SnapshotItr(ArrayList<E> elements, boolean ascending) {
+            this.elements = elements;
+            this.ascending = ascending;
+            this.cursor = ascending ? 0 : elements.size() - 1;
+        }
+
+        public boolean hasNext() {
+            return cursor >= 0 && cursor < elements.size();
+        }
+
+        public E next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException("the list has no more elements");
+            return ascending ? elements.get(cursor++) : elements.get(cursor--);
+        }
+    }
+}
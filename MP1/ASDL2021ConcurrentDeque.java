@@ -0,0 +1,580 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Thread-safe, non-blocking implementation of the Java SE Double-ended Queue
+ * (Deque) interface (<code>java.util.Deque</code>) based on a double linked
+ * list, like <code>ASDL2021Deque</code>. No lock is ever acquired: insertions
+ * and removals at both ends are done with compare-and-set operations on an
+ * immutable <i>anchor</i> holding the pointers to the first and the last node
+ * (M. M. Michael, "CAS-based lock-free algorithm for shared deques", 2003), so
+ * a thread suspended in the middle of an operation never blocks the others.
+ * This deque does not have capacity restrictions. Duplicated elements are
+ * permitted while <code>null</code> elements are not permitted.
+ *
+ * The iterators are <i>weakly consistent</i>: they never launch a
+ * <code>ConcurrentModificationException</code>, they return the elements
+ * present in the deque at the moment of their creation and they may (but are
+ * not guaranteed to) reflect the modifications done after their creation. The
+ * method <code>size()</code> needs a traversal of the deque and its result may
+ * be inaccurate if other threads are modifying the deque.
+ *
+ * The following operations are not supported, since the elements can be
+ * removed only at the ends:
+ * <ul>
+ * <li><code>public boolean remove(Object o)</code></li>
+ * <li><code>public boolean removeAll(Collection<?> c)</code></li>
+ * <li><code>public boolean retainAll(Collection<?> c)</code></li>
+ * <li><code>public boolean removeFirstOccurrence(Object o)</code></li>
+ * <li><code>public boolean removeLastOccurrence(Object o)</code></li>
+ * </ul>
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class ASDL2021ConcurrentDeque<E> implements Deque<E> {
+
+    /*
+     * The anchor is consistent: the last node is linked from its predecessor
+     * and the first node is linked from its successor.
+     */
+    private static final int STABLE = 0;
+
+    /*
+     * A node has been inserted at the head but its successor does not point
+     * back to it yet.
+     */
+    private static final int PUSH_FIRST = 1;
+
+    /*
+     * A node has been inserted at the tail but its predecessor does not point
+     * to it yet.
+     */
+    private static final int PUSH_LAST = 2;
+
+    /*
+     * Current anchor of this deque. Every successful operation replaces it
+     * with a new anchor object, so a compare-and-set on it cannot suffer from
+     * the ABA problem.
+     */
+    private final AtomicReference<Anchor<E>> anchor;
+
+    /**
+     * Constructs an empty deque.
+     */
+    public ASDL2021ConcurrentDeque() {
+        this.anchor = new AtomicReference<Anchor<E>>(
+                new Anchor<E>(null, null, STABLE));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return anchor.get().first == null;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return snapshot().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return snapshot().toArray(a);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object o : c)
+            if (!this.contains(o))
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        for (E o : c) {
+            if (o == null)
+                throw new NullPointerException("the element is null. this list doesn't permit null element.");
+            this.addLast(o);
+        }
+        return !c.isEmpty();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException(
+                "This class does not implement this service.");
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException(
+                "This class does not implement this service.");
+    }
+
+    @Override
+    public void clear() {
+        while (this.pollFirst() != null)
+            ;
+    }
+
+    @Override
+    public void addFirst(E e) {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        Node<E> n = new Node<E>(e);
+        while (true) {
+            Anchor<E> a = anchor.get();
+            //caso 1 - la coda è vuota. il nuovo nodo è sia la testa che la coda.
+            if (a.first == null) {
+                if (anchor.compareAndSet(a, new Anchor<E>(n, n, STABLE)))
+                    return;
+            }
+            //caso 2 - la coda è stabile. aggancio il nuovo nodo alla testa e poi
+            //completo il collegamento all'indietro.
+            else if (a.status == STABLE) {
+                n.next = a.first;
+                Anchor<E> pushed = new Anchor<E>(n, a.last, PUSH_FIRST);
+                if (anchor.compareAndSet(a, pushed)) {
+                    stabilizeFirst(pushed);
+                    return;
+                }
+            }
+            //caso 3 - un'altra operazione è in corso. la aiuto a terminare.
+            else
+                stabilize(a);
+        }
+    }
+
+    @Override
+    public void addLast(E e) {
+        if (e == null)
+            throw new NullPointerException("this element is null.");
+        Node<E> n = new Node<E>(e);
+        while (true) {
+            Anchor<E> a = anchor.get();
+            //caso 1 - la coda è vuota. il nuovo nodo è sia la testa che la coda.
+            if (a.last == null) {
+                if (anchor.compareAndSet(a, new Anchor<E>(n, n, STABLE)))
+                    return;
+            }
+            //caso 2 - la coda è stabile. aggancio il nuovo nodo in fondo e poi
+            //completo il collegamento in avanti.
+            else if (a.status == STABLE) {
+                n.prev = a.last;
+                Anchor<E> pushed = new Anchor<E>(a.first, n, PUSH_LAST);
+                if (anchor.compareAndSet(a, pushed)) {
+                    stabilizeLast(pushed);
+                    return;
+                }
+            }
+            //caso 3 - un'altra operazione è in corso. la aiuto a terminare.
+            else
+                stabilize(a);
+        }
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        this.addFirst(e);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        this.addLast(e);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        E item = this.pollFirst();
+        if (item == null)
+            throw new NoSuchElementException("the deque is empty.");
+        return item;
+    }
+
+    @Override
+    public E removeLast() {
+        E item = this.pollLast();
+        if (item == null)
+            throw new NoSuchElementException("the deque is empty");
+        return item;
+    }
+
+    @Override
+    public E pollFirst() {
+        while (true) {
+            Anchor<E> a = anchor.get();
+            if (a.first == null)
+                return null;
+            //leggo l'elemento prima del CAS: se il nodo venisse estratto da un
+            //altro thread l'ancora cambierebbe e il CAS fallirebbe.
+            Node<E> n = a.first;
+            E item = n.item;
+            //caso 1 - la coda ha un solo elemento.
+            if (a.first == a.last) {
+                if (anchor.compareAndSet(a, new Anchor<E>(null, null, STABLE)))
+                    return unlinked(n, item);
+            }
+            //caso 2 - la coda è stabile. sposto la testa sul nodo successivo.
+            else if (a.status == STABLE) {
+                if (anchor.compareAndSet(a, new Anchor<E>(n.next, a.last, STABLE))) {
+                    //stacco il nodo estratto dalla nuova testa.
+                    Node.PREV.compareAndSet(n.next, n, null);
+                    return unlinked(n, item);
+                }
+            }
+            //caso 3 - un'altra operazione è in corso. la aiuto a terminare.
+            else
+                stabilize(a);
+        }
+    }
+
+    @Override
+    public E pollLast() {
+        while (true) {
+            Anchor<E> a = anchor.get();
+            if (a.last == null)
+                return null;
+            Node<E> n = a.last;
+            E item = n.item;
+            //caso 1 - la coda ha un solo elemento.
+            if (a.first == a.last) {
+                if (anchor.compareAndSet(a, new Anchor<E>(null, null, STABLE)))
+                    return unlinked(n, item);
+            }
+            //caso 2 - la coda è stabile. sposto la coda sul nodo precedente.
+            else if (a.status == STABLE) {
+                if (anchor.compareAndSet(a, new Anchor<E>(a.first, n.prev, STABLE))) {
+                    //stacco il nodo estratto dalla nuova coda.
+                    Node.NEXT.compareAndSet(n.prev, n, null);
+                    return unlinked(n, item);
+                }
+            }
+            //caso 3 - un'altra operazione è in corso. la aiuto a terminare.
+            else
+                stabilize(a);
+        }
+    }
+
+    @Override
+    public E getFirst() {
+        E item = this.peekFirst();
+        if (item == null)
+            throw new NoSuchElementException("this list is empty.");
+        return item;
+    }
+
+    @Override
+    public E getLast() {
+        E item = this.peekLast();
+        if (item == null)
+            throw new NoSuchElementException("this list is empty.");
+        return item;
+    }
+
+    @Override
+    public E peekFirst() {
+        while (true) {
+            Anchor<E> a = anchor.get();
+            if (a.first == null)
+                return null;
+            E item = a.first.item;
+            //se l'elemento è stato estratto nel frattempo riprovo.
+            if (item != null)
+                return item;
+        }
+    }
+
+    @Override
+    public E peekLast() {
+        while (true) {
+            Anchor<E> a = anchor.get();
+            if (a.last == null)
+                return null;
+            E item = a.last.item;
+            if (item != null)
+                return item;
+        }
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        throw new UnsupportedOperationException(
+                "This class does not implement this service.");
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        throw new UnsupportedOperationException(
+                "This class does not implement this service.");
+    }
+
+    @Override
+    public boolean add(E e) {
+        this.addLast(e);
+        return true;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return this.offerLast(e);
+    }
+
+    @Override
+    public E remove() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return this.getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(E e) {
+        this.addFirst(e);
+    }
+
+    @Override
+    public E pop() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException(
+                "This class does not implement this service.");
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null.");
+        for (E item : this)
+            if (o.equals(item))
+                return true;
+        return false;
+    }
+
+    @Override
+    public int size() {
+        int count = 0;
+        for (Iterator<E> it = this.iterator(); it.hasNext(); it.next())
+            count++;
+        return count;
+    }
+
+    /*
+     * Class for representing the nodes of the double-linked list used to
+     * implement this deque. The links are updated with compare-and-set
+     * operations, the item is set to null when the node is removed.
+     */
+    private static class Node<E> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class,
+                        "next");
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> PREV =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class,
+                        "prev");
+
+        private volatile E item;
+
+        private volatile Node<E> next;
+
+        private volatile Node<E> prev;
+
+        private Node(E element) {
+            this.item = element;
+        }
+    }
+
+    /*
+     * Immutable snapshot of the ends of this deque together with the status of
+     * the last insertion.
+     */
+    private static final class Anchor<E> {
+        private final Node<E> first;
+
+        private final Node<E> last;
+
+        private final int status;
+
+        private Anchor(Node<E> first, Node<E> last, int status) {
+            this.first = first;
+            this.last = last;
+            this.status = status;
+        }
+    }
+
+    /*
+     * Completes the insertion described by the given anchor, if any.
+     */
+    private void stabilize(Anchor<E> a) {
+        if (a.status == PUSH_LAST)
+            stabilizeLast(a);
+        else if (a.status == PUSH_FIRST)
+            stabilizeFirst(a);
+    }
+
+    /*
+     * Links the predecessor of the new last node to it and marks the anchor as
+     * stable. Any thread can execute this method on behalf of the inserting
+     * one.
+     */
+    private void stabilizeLast(Anchor<E> a) {
+        Node<E> prev = a.last.prev;
+        if (anchor.get() != a)
+            return;
+        Node<E> prevNext = prev.next;
+        if (prevNext != a.last) {
+            if (anchor.get() != a)
+                return;
+            if (!Node.NEXT.compareAndSet(prev, prevNext, a.last))
+                return;
+        }
+        anchor.compareAndSet(a, new Anchor<E>(a.first, a.last, STABLE));
+    }
+
+    /*
+     * Links the successor of the new first node to it and marks the anchor as
+     * stable. Any thread can execute this method on behalf of the inserting
+     * one.
+     */
+    private void stabilizeFirst(Anchor<E> a) {
+        Node<E> next = a.first.next;
+        if (anchor.get() != a)
+            return;
+        Node<E> nextPrev = next.prev;
+        if (nextPrev != a.first) {
+            if (anchor.get() != a)
+                return;
+            if (!Node.PREV.compareAndSet(next, nextPrev, a.first))
+                return;
+        }
+        anchor.compareAndSet(a, new Anchor<E>(a.first, a.last, STABLE));
+    }
+
+    /*
+     * Releases the item of a node just removed from this deque, so that the
+     * node does not keep it reachable, and returns it. Only the item is
+     * cleared: the link from the new end of the deque to the removed node is
+     * cleared by the caller with a CAS, that fails if a concurrent insertion
+     * has already replaced that link, and the removed node keeps its own
+     * links.
+     */
+    private E unlinked(Node<E> n, E item) {
+        n.item = null;
+        return item;
+    }
+
+    /*
+     * Returns a stable anchor, helping the pending insertion if needed.
+     */
+    private Anchor<E> stableAnchor() {
+        while (true) {
+            Anchor<E> a = anchor.get();
+            if (a.status == STABLE)
+                return a;
+            stabilize(a);
+        }
+    }
+
+    /*
+     * Copies the current elements of this deque in a list.
+     */
+    private ArrayList<E> snapshot() {
+        ArrayList<E> list = new ArrayList<E>();
+        for (E item : this)
+            list.add(item);
+        return list;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr(true);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new Itr(false);
+    }
+
+    /*
+     * Class for implementing the weakly consistent iterators of this deque.
+     * The iterator starts from a stable anchor and follows the links towards
+     * the other end of that anchor. The elements removed after the creation of
+     * the iterator are skipped, so <code>next()</code> never returns
+     * <code>null</code>.
+     */
+    private class Itr implements Iterator<E> {
+
+        //true se l'iteratore va dalla testa alla coda
+        private final boolean ascending;
+        //ultimo nodo da visitare, cioè l'altro estremo dell'ancora iniziale
+        private final Node<E> end;
+        //prossimo nodo da visitare
+        private Node<E> currentNode;
+        //elemento da restituire alla prossima chiamata di next()
+        private E nextItem;
+
+        Itr(boolean ascending) {
+            this.ascending = ascending;
+            Anchor<E> a = stableAnchor();
+            this.currentNode = ascending ? a.first : a.last;
+            this.end = ascending ? a.last : a.first;
+            advance();
+        }
+
+        /*
+         * Moves the cursor to the next node whose item is still present.
+         */
+        private void advance() {
+            nextItem = null;
+            while (currentNode != null && nextItem == null) {
+                nextItem = currentNode.item;
+                if (currentNode == end)
+                    currentNode = null;
+                else
+                    currentNode = ascending ? currentNode.next : currentNode.prev;
+            }
+        }
+
+        public boolean hasNext() {
+            return nextItem != null;
+        }
+
+        public E next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException("the list has no more elements");
+            E item = nextItem;
+            advance();
+            return item;
+        }
+    }
+}
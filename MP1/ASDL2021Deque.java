@@ -8,6 +8,10 @@ import java.util.ConcurrentModificationException;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Implementation of the Java SE Double-ended Queue (Deque) interface
@@ -22,12 +26,13 @@ import java.util.NoSuchElementException;
  * The following operations are not supported:
  * <ul>
  * <li><code>public <T> T[] toArray(T[] a)</code></li>
- * <li><code>public boolean removeAll(Collection<?> c)</code></li>
- * <li><code>public boolean retainAll(Collection<?> c)</code></li>
- * <li><code>public boolean removeFirstOccurrence(Object o)</code></li>
- * <li><code>public boolean removeLastOccurrence(Object o)</code></li>
  * </ul>
  * 
+ * The removal operations (<code>remove(Object)</code>,
+ * <code>removeFirstOccurrence</code>, <code>removeLastOccurrence</code>,
+ * <code>removeAll</code>, <code>retainAll</code> and <code>removeIf</code>)
+ * scan the list only once and unlink the removed nodes in place.
+ * 
  * @author Template: Luca Tesei,
  * Implementation: ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
  *
@@ -56,14 +61,53 @@ public class ASDL2021Deque<E> implements Deque<E> {
      */
     private int actualChanges;
 
+    /*
+     * Maximum number of removed nodes kept for reuse, 0 if nodes are never
+     * recycled
+     */
+    private final int poolCapacity;
+
+    /*
+     * Head of the free list of removed nodes, linked through their next field
+     */
+    private Node<E> pool;
+
+    /*
+     * Current number of nodes in the free list
+     */
+    private int poolSize;
+
     /**
      * Constructs an empty deque.
      */
     public ASDL2021Deque() {
+        this(0);
+    }
+
+    /**
+     * Constructs an empty deque that recycles the nodes of the removed
+     * elements. Up to <code>poolCapacity</code> unlinked nodes are kept in a
+     * free list and reused by the following insertions, so that a deque with
+     * a steady flow of insertions and removals does not allocate new nodes.
+     * The items of the recycled nodes are always set to <code>null</code>, so
+     * the pool does not keep the removed elements alive.
+     * 
+     * @param poolCapacity
+     *                         the maximum number of nodes to keep for reuse, 0
+     *                         to disable recycling
+     * @throws IllegalArgumentException
+     *                                      if poolCapacity is negative
+     */
+    public ASDL2021Deque(int poolCapacity) {
+        if(poolCapacity < 0)
+            throw new IllegalArgumentException("the pool capacity is negative.");
         this.first = null;
         this.last = null;
         this.size = 0;
         this.actualChanges = 0;
+        this.poolCapacity = poolCapacity;
+        this.pool = null;
+        this.poolSize = 0;
     }
 
     @Override
@@ -78,7 +122,7 @@ public class ASDL2021Deque<E> implements Deque<E> {
     public Object[] toArray() {
         Object[] array = new Object[size()];
         int counter = 0;
-        for(Node n = first; n != null; n = n.next){
+        for(Node<E> n = first; n != null; n = n.next){
             array[counter++] = n.item;
         }
         return array;
@@ -117,16 +161,232 @@ public class ASDL2021Deque<E> implements Deque<E> {
         return true;
     }
 
+    /**
+     * Moves all the elements of another deque at the end of this deque,
+     * keeping their order. The nodes of the other deque are linked to this
+     * deque in constant time, without copying the elements. After this
+     * operation the other deque is empty.
+     * 
+     * @param other
+     *                  the deque whose elements will be moved
+     * @throws NullPointerException
+     *                                      if other is null
+     * @throws IllegalArgumentException
+     *                                      if other is this deque
+     */
+    public void appendAll(ASDL2021Deque<E> other) {
+        if(other == null)
+            throw new NullPointerException("the deque is null.");
+        if(other == this)
+            throw new IllegalArgumentException("a deque can not be appended to itself.");
+        if(other.isEmpty())
+            return;
+        //caso 1 - questa coda è vuota. prendo tutti i nodi dell'altra coda.
+        if(this.isEmpty()){
+            first = other.first;
+            last = other.last;
+        }
+        //caso 2 - collego la testa dell'altra coda alla fine di questa.
+        else {
+            last.next = other.first;
+            other.first.prev = last;
+            last = other.last;
+        }
+        size += other.size;
+        actualChanges++;
+        other.detachAll();
+    }
+
+    /**
+     * Moves all the elements of another deque at the beginning of this deque,
+     * keeping their order. The nodes of the other deque are linked to this
+     * deque in constant time, without copying the elements. After this
+     * operation the other deque is empty.
+     * 
+     * @param other
+     *                  the deque whose elements will be moved
+     * @throws NullPointerException
+     *                                      if other is null
+     * @throws IllegalArgumentException
+     *                                      if other is this deque
+     */
+    public void prependAll(ASDL2021Deque<E> other) {
+        if(other == null)
+            throw new NullPointerException("the deque is null.");
+        if(other == this)
+            throw new IllegalArgumentException("a deque can not be prepended to itself.");
+        if(other.isEmpty())
+            return;
+        //caso 1 - questa coda è vuota. prendo tutti i nodi dell'altra coda.
+        if(this.isEmpty()){
+            first = other.first;
+            last = other.last;
+        }
+        //caso 2 - collego la fine dell'altra coda alla testa di questa.
+        else {
+            other.last.next = first;
+            first.prev = other.last;
+            first = other.first;
+        }
+        size += other.size;
+        actualChanges++;
+        other.detachAll();
+    }
+
+    /**
+     * Removes at most the first <code>n</code> elements of this deque and
+     * returns them, in the same order, in a new deque. The removed nodes are
+     * moved to the new deque without copying the elements, and the size and
+     * the counter of changes of this deque are updated only once.
+     * 
+     * @param n
+     *              the maximum number of elements to remove
+     * @return a deque containing the removed elements, empty if this deque is
+     *         empty or n is 0
+     * @throws IllegalArgumentException
+     *                                      if n is negative
+     */
+    public ASDL2021Deque<E> pollFirst(int n) {
+        if(n < 0)
+            throw new IllegalArgumentException("the number of elements is negative.");
+        ASDL2021Deque<E> polled = new ASDL2021Deque<E>();
+        if(n == 0 || this.isEmpty())
+            return polled;
+        //caso 1 - prendo tutta la coda.
+        if(n >= size){
+            polled.appendAll(this);
+            return polled;
+        }
+        //caso 2 - cerco l'ultimo nodo da spostare e taglio la lista dopo di lui.
+        Node<E> cut = first;
+        for(int i = 1; i < n; i++)
+            cut = cut.next;
+        polled.first = first;
+        polled.last = cut;
+        polled.size = n;
+        first = cut.next;
+        first.prev = null;
+        cut.next = null;
+        size -= n;
+        actualChanges++;
+        return polled;
+    }
+
+    /**
+     * Removes all the elements of this deque, from the first to the last, and
+     * adds them to the given collection.
+     * 
+     * @param c
+     *              the collection to transfer the elements into
+     * @return the number of elements transferred
+     * @throws NullPointerException
+     *                                      if c is null
+     * @throws IllegalArgumentException
+     *                                      if c is this deque
+     */
+    public int drainTo(Collection<? super E> c) {
+        return this.drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes at most the given number of elements from the beginning of this
+     * deque and adds them, in order, to the given collection. The size and the
+     * counter of changes of this deque are updated only once, even if the
+     * collection launches an exception while adding an element; in that case
+     * the elements already transferred are not in this deque anymore.
+     * 
+     * @param c
+     *                        the collection to transfer the elements into
+     * @param maxElements
+     *                        the maximum number of elements to transfer
+     * @return the number of elements transferred
+     * @throws NullPointerException
+     *                                      if c is null
+     * @throws IllegalArgumentException
+     *                                      if c is this deque
+     */
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if(c == null)
+            throw new NullPointerException("the collection is null.");
+        if(c == this)
+            throw new IllegalArgumentException("a deque can not be drained to itself.");
+        int transferred = 0;
+        Node<E> pointer = first;
+        try {
+            //aggiungo gli elementi alla collezione e rilascio i nodi già trasferiti.
+            while(pointer != null && transferred < maxElements){
+                c.add(pointer.item);
+                Node<E> nextNode = pointer.next;
+                release(pointer);
+                pointer = nextNode;
+                transferred++;
+            }
+        } finally {
+            //aggiorno la coda una sola volta alla fine del trasferimento.
+            if(transferred > 0){
+                first = pointer;
+                if(first == null)
+                    last = null;
+                else
+                    first.prev = null;
+                size -= transferred;
+                actualChanges++;
+            }
+        }
+        return transferred;
+    }
+
+    /*
+     * Empties this deque after its nodes have been moved to another deque,
+     * without touching the moved nodes.
+     */
+    private void detachAll() {
+        this.first = null;
+        this.last = null;
+        this.size = 0;
+        actualChanges++;
+    }
+
     @Override
     public boolean removeAll(Collection<?> c) {
-        throw new UnsupportedOperationException(
-                "This class does not implement this service.");
+        if(c == null)
+            throw new NullPointerException("the collection is null.");
+        //elimino gli elementi contenuti nella collezione.
+        return this.removeIf(c::contains);
     }
 
     @Override
     public boolean retainAll(Collection<?> c) {
-        throw new UnsupportedOperationException(
-                "This class does not implement this service.");
+        if(c == null)
+            throw new NullPointerException("the collection is null.");
+        //elimino gli elementi non contenuti nella collezione.
+        return this.removeIf(item -> !c.contains(item));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        if(filter == null)
+            throw new NullPointerException("the filter is null.");
+        boolean removed = false;
+        try {
+            //scorro la coda una sola volta e stacco ogni nodo che soddisfa il filtro.
+            Node<E> pointer = first;
+            while(pointer != null){
+                //salvo il successivo prima di staccare il nodo.
+                Node<E> nextNode = pointer.next;
+                if(filter.test(pointer.item)) {
+                    unlink(pointer);
+                    removed = true;
+                }
+                pointer = nextNode;
+            }
+        } finally {
+            //le modifiche vengono contate una sola volta per tutta l'operazione,
+            //anche se il filtro lancia un'eccezione dopo aver staccato dei nodi.
+            if(removed)
+                actualChanges++;
+        }
+        return removed;
     }
 
     @Override
@@ -142,7 +402,7 @@ public class ASDL2021Deque<E> implements Deque<E> {
         if(e == null)
             throw new NullPointerException("the element is null.");
         //creo un nuovo nodo
-        Node n = new Node(null, e,null);
+        Node<E> n = newNode(e);
         //caso 1 - la coda è vuota. inserisco il nuovo nodo nella testa
         if(first == null){
             first = last = n;
@@ -161,7 +421,7 @@ public class ASDL2021Deque<E> implements Deque<E> {
     public void addLast(E e) {
        if(e == null)
            throw new NullPointerException("this element is null.");
-       Node n = new Node(null, e,null);
+       Node<E> n = newNode(e);
        //caso 1 - la coda è vuota. inserisco il primo elemento.
         if(this.isEmpty())
             first = last = n;
@@ -194,6 +454,8 @@ public class ASDL2021Deque<E> implements Deque<E> {
             throw new NoSuchElementException("the deque is empty.");
         //elemento da recuperare.
         E item = first.item;
+        //nodo da eliminare.
+        Node<E> removed = first;
         //caso 1 - la coda ha un solo elemento. elimino quell'elemento.
         if(first == last) {
             first = last = null;
@@ -203,6 +465,7 @@ public class ASDL2021Deque<E> implements Deque<E> {
             first = first.next;
             first.prev = null;
         }
+        release(removed);
         size--;
         actualChanges++;
         return item;
@@ -216,10 +479,13 @@ public class ASDL2021Deque<E> implements Deque<E> {
         E lastItem = last.item;
         //primo elemento da recuperare nel caso 1.
         E firstItem = first.item;
+        //nodo da eliminare.
+        Node<E> removed = last;
        //caso 1 - la lista ha un solo elemento che è sia la testa che la coda.
         if(first.next == null){
             first = last;
             first = last = null;
+            release(removed);
             size--;
             actualChanges++;
             return firstItem;
@@ -228,6 +494,7 @@ public class ASDL2021Deque<E> implements Deque<E> {
         else {
             last = last.prev;
             last.next = null;
+            release(removed);
             size--;
             actualChanges++;
             return lastItem;
@@ -240,6 +507,8 @@ public class ASDL2021Deque<E> implements Deque<E> {
             return null;
         //elemento da recuperare.
         E item = first.item;
+        //nodo da eliminare.
+        Node<E> removed = first;
         //caso 1 - la coda ha un solo elemento. elimino quell'elemento.
         if(first == last) {
             first = last = null;
@@ -249,6 +518,7 @@ public class ASDL2021Deque<E> implements Deque<E> {
             first = first.next;
             first.prev = null;
         }
+        release(removed);
         size--;
         actualChanges++;
         return item;
@@ -262,10 +532,13 @@ public class ASDL2021Deque<E> implements Deque<E> {
         E lastItem = last.item;
         //primo elemento da recuperare.
         E firstItem = first.item;
+        //nodo da eliminare.
+        Node<E> removed = last;
         //caso 1 - la lista ha un solo elemento che è sia la testa che la coda.
         if(first.next == null){
             first = last;
             first = last = null;
+            release(removed);
             size--;
             actualChanges++;
             return firstItem;
@@ -274,6 +547,7 @@ public class ASDL2021Deque<E> implements Deque<E> {
         else {
             last = last.prev;
             last.next = null;
+            release(removed);
             size--;
             actualChanges++;
             return lastItem;
@@ -312,14 +586,30 @@ public class ASDL2021Deque<E> implements Deque<E> {
 
     @Override
     public boolean removeFirstOccurrence(Object o) {
-        throw new UnsupportedOperationException(
-                "This class does not implement this service.");
+        if(o == null)
+            throw new NullPointerException("the element is null");
+        //scorro la coda dalla testa e stacco il primo nodo che corrisponde.
+        for(Node<E> pointer = first; pointer != null; pointer = pointer.next)
+            if(o.equals(pointer.item)){
+                unlink(pointer);
+                actualChanges++;
+                return true;
+            }
+        return false;
     }
 
     @Override
     public boolean removeLastOccurrence(Object o) {
-        throw new UnsupportedOperationException(
-                "This class does not implement this service.");
+        if(o == null)
+            throw new NullPointerException("the element is null");
+        //scorro la coda dalla fine e stacco il primo nodo che corrisponde.
+        for(Node<E> pointer = last; pointer != null; pointer = pointer.prev)
+            if(o.equals(pointer.item)){
+                unlink(pointer);
+                actualChanges++;
+                return true;
+            }
+        return false;
     }
 
     @Override
@@ -365,59 +655,7 @@ public class ASDL2021Deque<E> implements Deque<E> {
 
     @Override
     public boolean remove(Object o) {
-        if(o == null)
-            throw new NullPointerException("the element is null");
-        boolean removed = false;
-        Node pointer = first;
-        //caso 0 - la lista è vuota.
-        if(this.isEmpty())
-            return false;
-        //caso 1 - la lista ha un solo elemento.
-        if(size == 1) {
-            if ((this.contains(o) && removed) == false) {
-                first = last = null;
-                removed = true;
-            }
-        }
-        //caso 2 - l'elemento da eliminare è il primo
-        if(this.contains(o) && removed == false){
-            if(first.item.equals(o)){
-                first = first.next;
-                first.prev = null;
-                removed = true;
-            } else
-                removed = false;
-        }
-        //caso 3 - l'elemento da eliminare è l'ultimo.
-        if(this.contains(o) && removed == false) {
-            if (last.item.equals(o)) {
-                last = last.prev;
-                last.next = null;
-                removed = true;
-            }
-            else
-                removed = false;
-        }
-        //caso 4 - l'elemento da eliminare è in mezzo
-        while (pointer.next != null  && removed == false){
-            pointer = pointer.next;
-            if(this.contains(o)){
-                if(pointer.item.equals(o)){
-                    Node nodoPrima = pointer.prev;
-                    Node nodoDopo = pointer.next;
-                    pointer.prev.next = null;
-                    nodoPrima.next = nodoDopo;
-                    removed = true;
-                }             
-            }
-        }
-        if(removed){
-            size--;
-            actualChanges++;
-            return true;
-        }
-        else
-            return false;
+        return this.removeFirstOccurrence(o);
     }
 
     @Override
@@ -425,7 +663,7 @@ public class ASDL2021Deque<E> implements Deque<E> {
         if(o == null)
            throw new NullPointerException("the element is null.");
         //salvo il primo nodo.
-        Node firstNode = this.first;
+        Node<E> firstNode = this.first;
         //scorro tutta la coda e controllo se ci sono item che corrispondono.
        while(firstNode != null)
            if(o.equals(firstNode.item))
@@ -440,6 +678,62 @@ public class ASDL2021Deque<E> implements Deque<E> {
         return size;
     }
 
+    /*
+     * Returns a node containing the given element, taking it from the free
+     * list if possible.
+     */
+    private Node<E> newNode(E e) {
+        //caso 1 - non ci sono nodi da riusare. ne creo uno nuovo.
+        if(pool == null)
+            return new Node<E>(null, e, null);
+        //caso 2 - riuso il primo nodo della lista libera.
+        Node<E> n = pool;
+        pool = n.next;
+        poolSize--;
+        n.next = null;
+        n.item = e;
+        return n;
+    }
+
+    /*
+     * Clears a node removed from the double-linked list and, if the pool is
+     * not full, puts it in the free list.
+     */
+    private void release(Node<E> n) {
+        n.item = null;
+        n.prev = null;
+        if(poolSize < poolCapacity){
+            n.next = pool;
+            pool = n;
+            poolSize++;
+        }
+        else
+            n.next = null;
+    }
+
+    /*
+     * Removes the given node from the double-linked list and updates the size
+     * of this deque. The counter of changes is updated by the callers, so that
+     * a bulk removal counts as a single change.
+     */
+    private void unlink(Node<E> n) {
+        Node<E> nodoPrima = n.prev;
+        Node<E> nodoDopo = n.next;
+        //collego il nodo precedente al successivo, o sposto la testa.
+        if(nodoPrima == null)
+            first = nodoDopo;
+        else
+            nodoPrima.next = nodoDopo;
+        //collego il nodo successivo al precedente, o sposto la coda.
+        if(nodoDopo == null)
+            last = nodoPrima;
+        else
+            nodoDopo.prev = nodoPrima;
+        //annullo i riferimenti del nodo staccato.
+        release(n);
+        size--;
+    }
+
     /*
      * Class for representing the nodes of the double-linked list used to
      * implement this deque. The class and its members/methods are protected
@@ -570,6 +864,123 @@ public class ASDL2021Deque<E> implements Deque<E> {
 
     }
 
+    @Override
+    public Spliterator<E> spliterator() {
+        return new Spl();
+    }
+
+    /*
+     * Class for implementing a spliterator for this deque, so that parallel
+     * streams can be used on it. The spliterator binds to the deque at the
+     * first traversal, split or size estimation. Each split copies a batch of
+     * elements, whose size grows arithmetically at each split, into an array
+     * that is returned as a new spliterator, as the linked nodes can not be
+     * divided without scanning them. Like the iterators, the spliterator is
+     * fail-fast: it launches a <code>ConcurrentModificationException</code> if
+     * it detects a modification of the deque done after the binding.
+     */
+    private class Spl implements Spliterator<E> {
+
+        //incremento della dimensione dei lotti a ogni divisione
+        private static final int BATCH_UNIT = 1 << 10;
+        //dimensione massima di un lotto
+        private static final int MAX_BATCH = 1 << 25;
+
+        //prossimo nodo da visitare
+        private Node<E> currentNode;
+        //numero di elementi rimasti, negativo finché lo spliterator non è legato alla coda
+        private int est;
+        //modifiche attese
+        private int expectedChanges;
+        //dimensione dell'ultimo lotto restituito da trySplit()
+        private int batch;
+
+        Spl() {
+            this.currentNode = null;
+            this.est = -1;
+            this.expectedChanges = 0;
+            this.batch = 0;
+        }
+
+        /*
+         * Binds this spliterator to the current state of the deque, if not
+         * already done, and returns the number of remaining elements.
+         */
+        private int getEst() {
+            if(est < 0){
+                currentNode = first;
+                est = size;
+                expectedChanges = actualChanges;
+            }
+            return est;
+        }
+
+        @Override
+        public long estimateSize() {
+            return getEst();
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int s = getEst();
+            if(s <= 1 || currentNode == null)
+                return null;
+            //il nuovo lotto è più grande del precedente, ma non supera gli elementi rimasti.
+            int n = Math.min(Math.min(batch + BATCH_UNIT, s), MAX_BATCH);
+            Object[] a = new Object[n];
+            int j = 0;
+            Node<E> pointer = currentNode;
+            while(j < n && pointer != null){
+                a[j++] = pointer.item;
+                pointer = pointer.next;
+            }
+            currentNode = pointer;
+            batch = j;
+            est = s - j;
+            if(actualChanges != expectedChanges)
+                throw new ConcurrentModificationException("the changes don't match.");
+            return Spliterators.spliterator(a, 0, j, Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if(action == null)
+                throw new NullPointerException("the action is null.");
+            if(getEst() <= 0 || currentNode == null)
+                return false;
+            if(actualChanges != expectedChanges)
+                throw new ConcurrentModificationException("the changes don't match.");
+            E item = currentNode.item;
+            currentNode = currentNode.next;
+            est--;
+            action.accept(item);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            if(action == null)
+                throw new NullPointerException("the action is null.");
+            int n = getEst();
+            Node<E> pointer = currentNode;
+            //consumo tutti gli elementi rimasti e controllo le modifiche una sola volta alla fine.
+            currentNode = null;
+            est = 0;
+            while(n-- > 0 && pointer != null){
+                E item = pointer.item;
+                pointer = pointer.next;
+                action.accept(item);
+            }
+            if(actualChanges != expectedChanges)
+                throw new ConcurrentModificationException("the changes don't match.");
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+    }
+
     /*
      * This method is only for JUnit testing purposes.
      */
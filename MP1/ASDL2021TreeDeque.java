@@ -0,0 +1,906 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the Java SE Double-ended Queue (Deque) interface
+ * (<code>java.util.Deque</code>) that also offers positional access to its
+ * elements. The elements at the two ends of the deque are kept in two small
+ * circular buffers, while the elements in the middle are kept in an AVL tree
+ * whose nodes are annotated with the size of their subtree, so that the
+ * element at a given position can be found descending from the root.
+ *
+ * When a buffer is full half of it is moved in the tree with a single join,
+ * and when a buffer is empty it is refilled with a split of the tree, so the
+ * insertions and the removals at the ends take O(1) amortized time (a tree
+ * operation of O(log n) time every <code>CHUNK / 2</code> operations). The
+ * methods <code>get</code>, <code>set</code>, <code>insertAt</code> and
+ * <code>removeAt</code> take O(log n) time, instead of the O(n) time of a walk
+ * on the linked list of <code>ASDL2021Deque</code>.
+ *
+ * Duplicated elements are permitted while <code>null</code> elements are not
+ * permitted. The iterators are fail-fast and do not support the method
+ * <code>remove</code>.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class ASDL2021TreeDeque<E> implements Deque<E> {
+
+    /*
+     * Capacity of each buffer, it must be a power of two
+     */
+    private static final int CHUNK = 64;
+
+    /*
+     * Buffer with the first elements of the deque
+     */
+    private final Ring<E> front;
+
+    /*
+     * Root of the tree with the elements following the front buffer
+     */
+    private Node<E> root;
+
+    /*
+     * Buffer with the last elements of the deque
+     */
+    private final Ring<E> back;
+
+    /*
+     * Number of changes made to this deque
+     */
+    private int actualChanges;
+
+    /*
+     * Element removed by the last call of remove(Node, int)
+     */
+    private E removed;
+
+    /**
+     * Constructs an empty deque.
+     */
+    public ASDL2021TreeDeque() {
+        this.front = new Ring<E>();
+        this.root = null;
+        this.back = new Ring<E>();
+        this.actualChanges = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    @Override
+    public int size() {
+        return front.size + size(root) + back.size;
+    }
+
+    /**
+     * Returns the element at the given position of this deque.
+     *
+     * @param index
+     *                  the position of the element, starting from 0 at the
+     *                  head
+     * @return the element at the given position
+     * @throws IndexOutOfBoundsException
+     *                                       if index is negative or not lower
+     *                                       than the size of this deque
+     */
+    public E get(int index) {
+        checkIndex(index, this.size());
+        if (index < front.size)
+            return front.get(index);
+        index -= front.size;
+        if (index < size(root))
+            return nodeAt(root, index).item;
+        return back.get(index - size(root));
+    }
+
+    /**
+     * Replaces the element at the given position of this deque.
+     *
+     * @param index
+     *                  the position of the element, starting from 0 at the
+     *                  head
+     * @param e
+     *                  the new element
+     * @return the element previously at the given position
+     * @throws IndexOutOfBoundsException
+     *                                       if index is negative or not lower
+     *                                       than the size of this deque
+     * @throws NullPointerException
+     *                                       if the element is null
+     */
+    public E set(int index, E e) {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        checkIndex(index, this.size());
+        E old;
+        if (index < front.size) {
+            old = front.get(index);
+            front.set(index, e);
+        } else if (index - front.size < size(root)) {
+            Node<E> n = nodeAt(root, index - front.size);
+            old = n.item;
+            n.item = e;
+        } else {
+            int i = index - front.size - size(root);
+            old = back.get(i);
+            back.set(i, e);
+        }
+        //la sostituzione non cambia la struttura, ma gli iteratori vedrebbero un valore diverso.
+        actualChanges++;
+        return old;
+    }
+
+    /**
+     * Inserts an element at the given position of this deque, shifting the
+     * following elements towards the tail.
+     *
+     * @param index
+     *                  the position of the new element, from 0 (head) to the
+     *                  size of this deque (tail)
+     * @param e
+     *                  the element to insert
+     * @throws IndexOutOfBoundsException
+     *                                       if index is negative or greater
+     *                                       than the size of this deque
+     * @throws NullPointerException
+     *                                       if the element is null
+     */
+    public void insertAt(int index, E e) {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        int n = this.size();
+        checkIndex(index, n + 1);
+        if (index == 0) {
+            this.addFirst(e);
+            return;
+        }
+        if (index == n) {
+            this.addLast(e);
+            return;
+        }
+        //le posizioni interne sono tutte nell'albero: svuoto i buffer coinvolti.
+        if (index < front.size)
+            moveFrontToTree(front.size);
+        if (index > front.size + size(root))
+            moveBackToTree(back.size);
+        root = insert(root, index - front.size, new Node<E>(e));
+        actualChanges++;
+    }
+
+    /**
+     * Removes the element at the given position of this deque, shifting the
+     * following elements towards the head.
+     *
+     * @param index
+     *                  the position of the element, starting from 0 at the
+     *                  head
+     * @return the removed element
+     * @throws IndexOutOfBoundsException
+     *                                       if index is negative or not lower
+     *                                       than the size of this deque
+     */
+    public E removeAt(int index) {
+        int n = this.size();
+        checkIndex(index, n);
+        if (index == 0)
+            return this.removeFirst();
+        if (index == n - 1)
+            return this.removeLast();
+        if (index < front.size)
+            moveFrontToTree(front.size);
+        if (index >= front.size + size(root))
+            moveBackToTree(back.size);
+        root = remove(root, index - front.size);
+        actualChanges++;
+        E item = removed;
+        removed = null;
+        return item;
+    }
+
+    /**
+     * Returns the position of the first occurrence of the given element.
+     *
+     * @param o
+     *              the element to search
+     * @return the position of the first occurrence of o, or -1 if this deque
+     *         does not contain it
+     * @throws NullPointerException
+     *                                  if the element is null
+     */
+    public int indexOf(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null.");
+        int i = 0;
+        for (E item : this) {
+            if (o.equals(item))
+                return i;
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the position of the last occurrence of the given element.
+     *
+     * @param o
+     *              the element to search
+     * @return the position of the last occurrence of o, or -1 if this deque
+     *         does not contain it
+     * @throws NullPointerException
+     *                                  if the element is null
+     */
+    public int lastIndexOf(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null.");
+        int i = this.size() - 1;
+        Iterator<E> it = this.descendingIterator();
+        while (it.hasNext()) {
+            if (o.equals(it.next()))
+                return i;
+            i--;
+        }
+        return -1;
+    }
+
+    @Override
+    public void addFirst(E e) {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        //il buffer è pieno: sposto nell'albero la metà vicina all'albero.
+        if (front.size == CHUNK)
+            moveFrontToTree(CHUNK / 2);
+        front.addFirst(e);
+        actualChanges++;
+    }
+
+    @Override
+    public void addLast(E e) {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        if (back.size == CHUNK)
+            moveBackToTree(CHUNK / 2);
+        back.addLast(e);
+        actualChanges++;
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        this.addFirst(e);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        this.addLast(e);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("the deque is empty.");
+        actualChanges++;
+        if (front.size == 0) {
+            //caso 1 - riempio il buffer con i primi elementi dell'albero.
+            if (root != null)
+                moveTreeToFront(Math.min(CHUNK / 2, size(root)));
+            //caso 2 - restano solo gli elementi del buffer in fondo.
+            else
+                return back.removeFirst();
+        }
+        return front.removeFirst();
+    }
+
+    @Override
+    public E removeLast() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("the deque is empty.");
+        actualChanges++;
+        if (back.size == 0) {
+            if (root != null)
+                moveTreeToBack(Math.min(CHUNK / 2, size(root)));
+            else
+                return front.removeLast();
+        }
+        return back.removeLast();
+    }
+
+    @Override
+    public E pollFirst() {
+        return this.isEmpty() ? null : this.removeFirst();
+    }
+
+    @Override
+    public E pollLast() {
+        return this.isEmpty() ? null : this.removeLast();
+    }
+
+    @Override
+    public E getFirst() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("the deque is empty.");
+        return this.get(0);
+    }
+
+    @Override
+    public E getLast() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("the deque is empty.");
+        return this.get(this.size() - 1);
+    }
+
+    @Override
+    public E peekFirst() {
+        return this.isEmpty() ? null : this.get(0);
+    }
+
+    @Override
+    public E peekLast() {
+        return this.isEmpty() ? null : this.get(this.size() - 1);
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        int i = this.indexOf(o);
+        if (i < 0)
+            return false;
+        this.removeAt(i);
+        return true;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        int i = this.lastIndexOf(o);
+        if (i < 0)
+            return false;
+        this.removeAt(i);
+        return true;
+    }
+
+    @Override
+    public boolean add(E e) {
+        this.addLast(e);
+        return true;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return this.offerLast(e);
+    }
+
+    @Override
+    public E remove() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return this.pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return this.getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return this.peekFirst();
+    }
+
+    @Override
+    public void push(E e) {
+        this.addFirst(e);
+    }
+
+    @Override
+    public E pop() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return this.removeFirstOccurrence(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return this.indexOf(o) >= 0;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object o : c)
+            if (!this.contains(o))
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        for (E e : c)
+            this.addLast(e);
+        return !c.isEmpty();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        if (filter == null)
+            throw new NullPointerException("the filter is null.");
+        Object[] kept = new Object[this.size()];
+        int n = 0;
+        for (E item : this)
+            if (!filter.test(item))
+                kept[n++] = item;
+        if (n == kept.length)
+            return false;
+        //ricostruisco l'albero bilanciato con gli elementi rimasti.
+        front.clear();
+        back.clear();
+        root = build(kept, 0, n);
+        actualChanges++;
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("the collection is null.");
+        return this.removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("the collection is null.");
+        return this.removeIf(item -> !c.contains(item));
+    }
+
+    @Override
+    public void clear() {
+        front.clear();
+        root = null;
+        back.clear();
+        actualChanges++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] a = new Object[this.size()];
+        int i = 0;
+        for (E item : this)
+            a[i++] = item;
+        return a;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T[] toArray(T[] a) {
+        int n = this.size();
+        if (a.length < n)
+            a = (T[]) java.lang.reflect.Array
+                    .newInstance(a.getClass().getComponentType(), n);
+        int i = 0;
+        for (E item : this)
+            a[i++] = (T) item;
+        if (a.length > n)
+            a[n] = null;
+        return a;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr(false);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new Itr(true);
+    }
+
+    /*
+     * Launches an IndexOutOfBoundsException if index is not in [0, bound).
+     */
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound)
+            throw new IndexOutOfBoundsException("the index is not valid.");
+    }
+
+    /*
+     * Moves the last k elements of the front buffer at the beginning of the
+     * tree.
+     */
+    private void moveFrontToTree(int k) {
+        if (k == 0)
+            return;
+        Object[] chunk = new Object[k];
+        for (int i = k - 1; i >= 0; i--)
+            chunk[i] = front.removeLast();
+        //l'ultimo elemento fa da radice dell'unione tra il pezzo e l'albero.
+        root = join(build(chunk, 0, k - 1), new Node<E>(elementAt(chunk, k - 1)),
+                root);
+    }
+
+    /*
+     * Moves the first k elements of the back buffer at the end of the tree.
+     */
+    private void moveBackToTree(int k) {
+        if (k == 0)
+            return;
+        Object[] chunk = new Object[k];
+        for (int i = 0; i < k; i++)
+            chunk[i] = back.removeFirst();
+        root = join(root, new Node<E>(elementAt(chunk, 0)), build(chunk, 1, k));
+    }
+
+    /*
+     * Moves the first k elements of the tree at the end of the front buffer,
+     * which must have space for them.
+     */
+    private void moveTreeToFront(int k) {
+        Split<E> parts = split(root, k);
+        root = parts.second;
+        appendTo(parts.first, front);
+    }
+
+    /*
+     * Moves the last k elements of the tree at the beginning of the back
+     * buffer, which must be empty.
+     */
+    private void moveTreeToBack(int k) {
+        Split<E> parts = split(root, size(root) - k);
+        root = parts.first;
+        appendTo(parts.second, back);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E elementAt(Object[] a, int i) {
+        return (E) a[i];
+    }
+
+    /*
+     * Adds at the end of the buffer the elements of a tree, in order.
+     */
+    private static <E> void appendTo(Node<E> t, Ring<E> ring) {
+        if (t == null)
+            return;
+        appendTo(t.left, ring);
+        ring.addLast(t.item);
+        appendTo(t.right, ring);
+    }
+
+    /*
+     * Builds a perfectly balanced tree with the elements a[from..to).
+     */
+    private static <E> Node<E> build(Object[] a, int from, int to) {
+        if (from >= to)
+            return null;
+        int mid = (from + to) >>> 1;
+        Node<E> n = new Node<E>(ASDL2021TreeDeque.<E> elementAt(a, mid));
+        n.left = build(a, from, mid);
+        n.right = build(a, mid + 1, to);
+        update(n);
+        return n;
+    }
+
+    /*
+     * Returns the node at the given position of the tree.
+     */
+    private static <E> Node<E> nodeAt(Node<E> t, int index) {
+        while (true) {
+            int s = size(t.left);
+            if (index < s)
+                t = t.left;
+            else if (index > s) {
+                index -= s + 1;
+                t = t.right;
+            } else
+                return t;
+        }
+    }
+
+    /*
+     * Inserts the node k at the given position of the tree and returns the new
+     * root.
+     */
+    private static <E> Node<E> insert(Node<E> t, int index, Node<E> k) {
+        if (t == null)
+            return k;
+        int s = size(t.left);
+        if (index <= s)
+            t.left = insert(t.left, index, k);
+        else
+            t.right = insert(t.right, index - s - 1, k);
+        return balance(t);
+    }
+
+    /*
+     * Removes the node at the given position of the tree, saving its element
+     * in the field removed, and returns the new root.
+     */
+    private Node<E> remove(Node<E> t, int index) {
+        int s = size(t.left);
+        if (index < s)
+            t.left = remove(t.left, index);
+        else if (index > s)
+            t.right = remove(t.right, index - s - 1);
+        else {
+            E item = t.item;
+            if (t.left == null || t.right == null) {
+                removed = item;
+                return t.left == null ? t.right : t.left;
+            }
+            //il nodo ha due figli: lo sostituisco con il suo successore.
+            t.item = nodeAt(t.right, 0).item;
+            t.right = remove(t.right, 0);
+            removed = item;
+        }
+        return balance(t);
+    }
+
+    /*
+     * Joins the tree l, the node k and the tree r, in this order, and returns
+     * the root of the resulting balanced tree. It takes O(|h(l) - h(r)|)
+     * time.
+     */
+    private static <E> Node<E> join(Node<E> l, Node<E> k, Node<E> r) {
+        if (height(l) > height(r) + 1) {
+            l.right = join(l.right, k, r);
+            return balance(l);
+        }
+        if (height(r) > height(l) + 1) {
+            r.left = join(l, k, r.left);
+            return balance(r);
+        }
+        k.left = l;
+        k.right = r;
+        update(k);
+        return k;
+    }
+
+    /*
+     * Splits the tree in a tree with its first index elements and a tree with
+     * the others, and returns them in this order. It takes O(log n) time.
+     */
+    private static <E> Split<E> split(Node<E> t, int index) {
+        if (t == null)
+            return new Split<E>();
+        Node<E> l = t.left;
+        Node<E> r = t.right;
+        int s = size(l);
+        if (index <= s) {
+            Split<E> parts = split(l, index);
+            parts.second = join(parts.second, t, r);
+            return parts;
+        }
+        Split<E> parts = split(r, index - s - 1);
+        parts.first = join(l, t, parts.first);
+        return parts;
+    }
+
+    private static int height(Node<?> n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static int size(Node<?> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static void update(Node<?> n) {
+        n.height = Math.max(height(n.left), height(n.right)) + 1;
+        n.size = size(n.left) + size(n.right) + 1;
+    }
+
+    private static <E> Node<E> rotateRight(Node<E> n) {
+        Node<E> l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static <E> Node<E> rotateLeft(Node<E> n) {
+        Node<E> r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    /*
+     * Restores the AVL property in a node whose subtrees differ in height by
+     * at most two, and returns the new root of the subtree.
+     */
+    private static <E> Node<E> balance(Node<E> n) {
+        update(n);
+        int b = height(n.left) - height(n.right);
+        //caso 1 - il sottoalbero sinistro è troppo alto.
+        if (b > 1) {
+            if (height(n.left.left) < height(n.left.right))
+                n.left = rotateLeft(n.left);
+            return rotateRight(n);
+        }
+        //caso 2 - il sottoalbero destro è troppo alto.
+        if (b < -1) {
+            if (height(n.right.right) < height(n.right.left))
+                n.right = rotateRight(n.right);
+            return rotateLeft(n);
+        }
+        return n;
+    }
+
+    /*
+     * Node of the AVL tree, annotated with the height and the size of its
+     * subtree.
+     */
+    private static class Node<E> {
+
+        private E item;
+
+        private Node<E> left;
+
+        private Node<E> right;
+
+        private int height;
+
+        private int size;
+
+        Node(E item) {
+            this.item = item;
+            this.height = 1;
+            this.size = 1;
+        }
+    }
+
+    /*
+     * The two trees returned by split, in order.
+     */
+    private static class Split<E> {
+
+        private Node<E> first;
+
+        private Node<E> second;
+    }
+
+    /*
+     * Circular buffer with at most CHUNK elements.
+     */
+    private static class Ring<E> {
+
+        private final Object[] elements = new Object[CHUNK];
+
+        private int head;
+
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        E get(int i) {
+            return (E) elements[(head + i) & (CHUNK - 1)];
+        }
+
+        void set(int i, E e) {
+            elements[(head + i) & (CHUNK - 1)] = e;
+        }
+
+        void addFirst(E e) {
+            head = (head - 1) & (CHUNK - 1);
+            elements[head] = e;
+            size++;
+        }
+
+        void addLast(E e) {
+            elements[(head + size) & (CHUNK - 1)] = e;
+            size++;
+        }
+
+        E removeFirst() {
+            E e = this.get(0);
+            elements[head] = null;
+            head = (head + 1) & (CHUNK - 1);
+            size--;
+            return e;
+        }
+
+        E removeLast() {
+            E e = this.get(size - 1);
+            size--;
+            elements[(head + size) & (CHUNK - 1)] = null;
+            return e;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++)
+                this.set(i, null);
+            head = 0;
+            size = 0;
+        }
+    }
+
+    /*
+     * Iterator that visits the front buffer, the tree and the back buffer, or
+     * the same parts in the opposite order if it is descending.
+     */
+    private class Itr implements Iterator<E> {
+
+        //verso della visita
+        private final boolean descending;
+        //elementi ancora da restituire
+        private int remaining;
+        //parte della coda visitata: 0 primo buffer, 1 albero, 2 secondo buffer
+        private int phase;
+        //posizione nel buffer corrente
+        private int position;
+        //nodi dell'albero di cui restano da visitare il nodo e un sottoalbero
+        private final ASDL2021ArrayDeque<Node<E>> stack;
+        //modifiche attese
+        private final int expectedChanges;
+
+        Itr(boolean descending) {
+            this.descending = descending;
+            this.remaining = ASDL2021TreeDeque.this.size();
+            this.phase = 0;
+            this.position = 0;
+            this.stack = new ASDL2021ArrayDeque<Node<E>>(16);
+            this.expectedChanges = actualChanges;
+        }
+
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        public E next() {
+            if (actualChanges != expectedChanges)
+                throw new ConcurrentModificationException("the changes don't match.");
+            if (!this.hasNext())
+                throw new NoSuchElementException("the list has no more elements");
+            remaining--;
+            while (true) {
+                if (phase == 0 || phase == 2) {
+                    Ring<E> ring = (phase == 0) != descending ? front : back;
+                    if (position < ring.size) {
+                        int i = position++;
+                        return ring.get(descending ? ring.size - 1 - i : i);
+                    }
+                    //il buffer è finito: passo alla parte successiva.
+                    if (phase == 0)
+                        pushPath(root);
+                    phase++;
+                    position = 0;
+                } else {
+                    if (!stack.isEmpty()) {
+                        Node<E> n = stack.pop();
+                        pushPath(descending ? n.left : n.right);
+                        return n.item;
+                    }
+                    phase++;
+                }
+            }
+        }
+
+        /*
+         * Pushes the nodes from n to the first node of its subtree in the
+         * order of the visit.
+         */
+        private void pushPath(Node<E> n) {
+            while (n != null) {
+                stack.push(n);
+                n = descending ? n.right : n.left;
+            }
+        }
+    }
+}
@@ -1,9 +1,28 @@
 package it.unicam.cs.asdl2021.mp1;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
 
 /**
- * An object of this class is an actor that uses an ASDL2021Deque<Character> as
- * a Stack in order to check that a sequence containing the following
+ * An object of this class is an actor that uses a CharDeque as a Stack in
+ * order to check that a sequence containing the following
  * characters: '(', ')', '[', ']', '{', '}' in any order is a string of balanced
  * parentheses or not. The input is given as a String in which white spaces,
  * tabs and newlines are ignored.
@@ -16,20 +35,65 @@ package it.unicam.cs.asdl2021.mp1;
  * NOT a string of balanced parentheses - "( ( \n [(P)] \t ))" is NOT a string
  * of balanced parentheses
  * 
+ * The input can also be read from a <code>Reader</code>, a
+ * <code>ReadableByteChannel</code> or a file: in these cases it is processed
+ * in a single streaming pass, using memory proportional only to the nesting
+ * depth of the parentheses. The methods <code>checkParallel</code> split the
+ * input in chunks that are checked in parallel by a
+ * <code>ForkJoinPool</code>. The methods <code>checkAll</code> check many
+ * strings in parallel and, differently from the other methods, can be called
+ * by more threads at the same time on the same checker.
+ * 
  * @author Template: Luca Tesei,
  * Implementation: ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
  *
  */
 public class BalancedParenthesesChecker {
 
-    // The stack is to be used to check the balanced parentheses
-    private ASDL2021Deque<Character> stack;
+    // The stack is to be used to check the balanced parentheses. It holds
+    // primitive chars, so no boxing nor node allocation is done per character
+    private CharDeque stack;
+
+    // Size of the buffers used to read the streams
+    private static final int BUFFER_SIZE = 8192;
+
+    // Maximum size of a region of a file mapped in memory at once
+    private static final long MAPPING_SIZE = 1L << 30;
+
+    // Number of characters under which a chunk is not split anymore
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // Number of strings checked by a single task of checkAll
+    private static final int BATCH_SIZE = 4096;
+
+    // Stacks used by checkAll, one for each thread, reused between the calls
+    private static final ThreadLocal<CharDeque> STACKS = ThreadLocal
+            .withInitial(CharDeque::new);
+
+    // Kinds of the characters, used as values of the table KINDS
+    private static final byte ILLEGAL = 0, BLANK = 1, OPEN = 2, CLOSE = 3;
+
+    // Kind of each character with code lower than 256: a single lookup
+    // replaces the comparisons with all the legal characters
+    private static final byte[] KINDS = new byte[256];
+
+    // Open parenthesis matching each closed parenthesis
+    private static final char[] OPENING = new char[256];
+
+    static {
+        KINDS[' '] = KINDS['\t'] = KINDS['\n'] = BLANK;
+        KINDS['('] = KINDS['['] = KINDS['{'] = OPEN;
+        KINDS[')'] = KINDS[']'] = KINDS['}'] = CLOSE;
+        OPENING[')'] = '(';
+        OPENING[']'] = '[';
+        OPENING['}'] = '{';
+    }
 
     /**
      * Create a new checker.
      */
     public BalancedParenthesesChecker() {
-        this.stack = new ASDL2021Deque<Character>();
+        this.stack = new CharDeque();
     }
 
     /**
@@ -48,76 +112,552 @@ public class BalancedParenthesesChecker {
      *                                      and newline '\n'
      */
     public boolean check(String s) {
-        //controllo se ogni carattere della stringa è corretto.
-        for (Character t : s.toCharArray()) {
-            if (!(t.charValue() == '('
-                    || (t.charValue() == ')'
-                    || (t.charValue() == '['
-                    || (t.charValue() == ']'
-                    || (t.charValue() == '{'
-                    || (t.charValue() == '}'
-                    || (t.charValue() == ' '
-                    || (t.charValue() == '\t'
-                    || (t.charValue() == '\n'))))))))))
+        return check(s, this.stack);
+    }
+
+    /*
+     * Checks a string using the given stack.
+     */
+    private static boolean check(String s, CharDeque stack) {
+        //controllo se ogni carattere della stringa è corretto con la tabella dei tipi.
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char t = s.charAt(i);
+            if (t >= KINDS.length || KINDS[t] == ILLEGAL)
                 throw new IllegalArgumentException("this character is incorrect.");
         }
         //svuoto lo stack.
-        this.stack.clear();
-        //scorro tutti i caratteri della stringa.
-        for (int i = 0; i < s.length(); i++) {
-            //cursore per prendere i caratteri della stringa
-            char cursorCharacter = s.charAt(i);
-            //se un carattere è una parentesi aperta lo inserisco nello stack
-            if (cursorCharacter == '{'
-                    || cursorCharacter == '['
-                    || cursorCharacter == '('){
-                stack.push(cursorCharacter);
-            }
-            //se lo stack è vuoto (quindi non ci sono parentesi aperte inserite), e
-            // la stringa contiene parentesi chiuse, la stringa non è bilanciata.
-            else if((cursorCharacter == '}'
-                    || cursorCharacter == ']'
-                    || cursorCharacter == ')') && stack.isEmpty())
+        stack.clear();
+        //scorro tutti i caratteri della stringa: solo le parentesi arrivano allo stack.
+        for (int i = 0; i < n; i++) {
+            char t = s.charAt(i);
+            byte kind = KINDS[t];
+            if (kind == OPEN)
+                stack.push(t);
+            //una parentesi chiusa deve corrispondere all'ultima aperta.
+            else if (kind == CLOSE && (stack.isEmpty() || stack.pop() != OPENING[t]))
                 return false;
-           //altrimenti se lo stack non è vuoto, devo controllare se la stringa è bilanciata.
-            else if (!stack.isEmpty()) {
-                //primo elemento dello stack.
-                char firstElementOfStack;
-                //controllo se il prossimo carattere dopo quelli inseriti nello stack,
-                // è una parentesi graffa chiusa
-                if (cursorCharacter == '}') {
-                    //recupero e elimino il primo elemento dello stack.
-                    firstElementOfStack = stack.pop();
-                    //se il primo elemento inserito nello stack non è una parentesi graffa aperta
-                    //la stringa non è bilanciata
-                    if (firstElementOfStack != '{')
-                        return false;
-                }
-                //altrimenti, controllo se il prossimo carattere dopo quelli inseriti nello stack,
-                // è una parentesi quadra chiusa
-                else if (cursorCharacter == ']') {
-                    //recupero e elimino il primo elemento dello stack.
-                    firstElementOfStack = stack.pop();
-                    //se il primo elemento inserito nello stack non è una parentesi quadra aperta
-                    //la stringa non è bilanciata
-                    if (firstElementOfStack != '[')
-                        return false;
-                }
-                //altrimenti, controllo se il prossimo carattere dopo quelli inseriti nello stack,
-                // è una parentesi tonda chiusa
-                else if (cursorCharacter == ')') {
-                    //recupero e elimino il primo elemento dello stack.
-                    firstElementOfStack = stack.pop();
-                    //se il primo elemento inserito nello stack non è una parentesi tonda aperta
-                    //la stringa non è bilanciata
-                    if (firstElementOfStack != '(')
-                        return false;
+        }
+        return stack.isEmpty();
+    }
+
+    /**
+     * Check a list of strings with the same rules of
+     * <code>check(String)</code>, using the common <code>ForkJoinPool</code>.
+     * 
+     * @param strings
+     *                    the strings to check
+     * @return a set containing the positions in the list of the strings that
+     *         contain a balanced parentheses sequence
+     * @throws IllegalArgumentException
+     *                                      if a string contains at least a
+     *                                      character different form:'(', ')',
+     *                                      '[', ']', '{', '}', white space ' ',
+     *                                      tab '\t' and newline '\n'
+     */
+    public BitSet checkAll(List<String> strings) {
+        return this.checkAll(strings, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Check a list of strings with the same rules of
+     * <code>check(String)</code>. The list is divided in batches of
+     * consecutive strings that are checked by the tasks of the given executor,
+     * so the parallelism is bounded by the one of the executor; each thread
+     * uses its own stack, that is reused for all the strings it checks. This
+     * method can be called by more threads at the same time.
+     * 
+     * @param strings
+     *                     the strings to check, it must support fast random
+     *                     access
+     * @param executor
+     *                     the executor that runs the checks
+     * @return a set containing the positions in the list of the strings that
+     *         contain a balanced parentheses sequence
+     * @throws IllegalArgumentException
+     *                                      if a string contains at least a
+     *                                      character different form:'(', ')',
+     *                                      '[', ']', '{', '}', white space ' ',
+     *                                      tab '\t' and newline '\n'
+     */
+    public BitSet checkAll(List<String> strings, Executor executor) {
+        if (strings == null)
+            throw new NullPointerException("the list is null.");
+        if (executor == null)
+            throw new NullPointerException("the executor is null.");
+        int n = strings.size();
+        List<CompletableFuture<BitSet>> tasks =
+                new ArrayList<CompletableFuture<BitSet>>((n + BATCH_SIZE - 1) / BATCH_SIZE);
+        for (int from = 0; from < n; from += BATCH_SIZE) {
+            List<String> batch = strings.subList(from, Math.min(from + BATCH_SIZE, n));
+            tasks.add(CompletableFuture.supplyAsync(() -> checkBatch(batch), executor));
+        }
+        //parole del risultato: ogni lotto occupa BATCH_SIZE / 64 parole consecutive.
+        long[] words = new long[(n + Long.SIZE - 1) / Long.SIZE];
+        for (int b = 0; b < tasks.size(); b++)
+            merge(words, join(tasks.get(b)), b * BATCH_SIZE);
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Check a stream of strings with the same rules of
+     * <code>check(String)</code>, using the common <code>ForkJoinPool</code>.
+     * The stream is consumed in batches, and only a bounded number of batches
+     * is kept in memory at the same time.
+     * 
+     * @param strings
+     *                    the strings to check
+     * @return a set containing the positions in the stream of the strings that
+     *         contain a balanced parentheses sequence
+     * @throws IllegalArgumentException
+     *                                      if a string contains at least a
+     *                                      character different form:'(', ')',
+     *                                      '[', ']', '{', '}', white space ' ',
+     *                                      tab '\t' and newline '\n'
+     */
+    public BitSet checkAll(Stream<String> strings) {
+        return this.checkAll(strings, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Check a stream of strings with the same rules of
+     * <code>check(String)</code>, as <code>checkAll(List, Executor)</code>.
+     * The stream is consumed in batches, and only a bounded number of batches
+     * is kept in memory at the same time.
+     * 
+     * @param strings
+     *                     the strings to check
+     * @param executor
+     *                     the executor that runs the checks
+     * @return a set containing the positions in the stream of the strings that
+     *         contain a balanced parentheses sequence
+     * @throws IllegalArgumentException
+     *                                      if a string contains at least a
+     *                                      character different form:'(', ')',
+     *                                      '[', ']', '{', '}', white space ' ',
+     *                                      tab '\t' and newline '\n'
+     */
+    public BitSet checkAll(Stream<String> strings, Executor executor) {
+        if (strings == null)
+            throw new NullPointerException("the stream is null.");
+        if (executor == null)
+            throw new NullPointerException("the executor is null.");
+        int maxPending = 2 * Runtime.getRuntime().availableProcessors();
+        //lotti inviati all'esecutore e non ancora aggiunti al risultato.
+        ASDL2021ArrayDeque<CompletableFuture<BitSet>> pending =
+                new ASDL2021ArrayDeque<CompletableFuture<BitSet>>(maxPending);
+        long[] words = new long[BATCH_SIZE / Long.SIZE];
+        String[] batch = new String[BATCH_SIZE];
+        int size = 0;
+        int from = 0;
+        //posizione del primo lotto in attesa.
+        int merged = 0;
+        Iterator<String> it = strings.iterator();
+        while (it.hasNext()) {
+            batch[size++] = it.next();
+            if (size == BATCH_SIZE || !it.hasNext()) {
+                List<String> strs = Arrays.asList(batch).subList(0, size);
+                pending.addLast(CompletableFuture
+                        .supplyAsync(() -> checkBatch(strs), executor));
+                from += size;
+                batch = new String[BATCH_SIZE];
+                size = 0;
+                if (words.length * Long.SIZE < from)
+                    words = Arrays.copyOf(words, words.length << 1);
+                //troppi lotti in attesa: aspetto il più vecchio prima di leggere ancora.
+                if (pending.size() >= maxPending) {
+                    merge(words, join(pending.removeFirst()), merged);
+                    merged += BATCH_SIZE;
                 }
             }
         }
-        if(stack.isEmpty())
-            return true;
-        else
+        while (!pending.isEmpty()) {
+            merge(words, join(pending.removeFirst()), merged);
+            merged += BATCH_SIZE;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /*
+     * Checks a batch of strings with the stack of the current thread and
+     * returns the set of the positions in the batch of the balanced ones.
+     */
+    private static BitSet checkBatch(List<String> strings) {
+        CharDeque stack = STACKS.get();
+        BitSet result = new BitSet(strings.size());
+        for (int i = 0; i < strings.size(); i++)
+            if (check(strings.get(i), stack))
+                result.set(i);
+        return result;
+    }
+
+    /*
+     * Copies the set of a batch in the words of the result, starting from the
+     * position offset. Since BATCH_SIZE is a multiple of 64, offset falls on
+     * the beginning of a word and the batches do not share any word.
+     */
+    private static void merge(long[] words, BitSet batch, int offset) {
+        long[] w = batch.toLongArray();
+        System.arraycopy(w, 0, words, offset / Long.SIZE, w.length);
+    }
+
+    /*
+     * Waits for the result of a task, launching again the exception that it
+     * has launched.
+     */
+    private static BitSet join(CompletableFuture<BitSet> task) {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Check if the characters read from a reader form a balanced parentheses
+     * sequence, with the same rules of <code>check(String)</code>. The reader
+     * is read until its end in a single pass, and it is not closed.
+     * 
+     * @param in
+     *               the reader to check
+     * @return true if the characters read contain a balanced parentheses
+     *         sequence, false otherwise
+     * @throws IllegalArgumentException
+     *                                      if the reader contains at least a
+     *                                      character different form:'(', ')',
+     *                                      '[', ']', '{', '}', white space ' ',
+     *                                      tab '\t' and newline '\n'
+     * @throws IOException
+     *                                      if an I/O error occurs
+     */
+    public boolean check(Reader in) throws IOException {
+        if (in == null)
+            throw new NullPointerException("the reader is null.");
+        this.stack.clear();
+        boolean balanced = true;
+        char[] buffer = new char[BUFFER_SIZE];
+        int n;
+        while ((n = in.read(buffer)) != -1)
+            for (int i = 0; i < n; i++)
+                balanced = this.step(buffer[i], balanced);
+        return balanced && this.stack.isEmpty();
+    }
+
+    /**
+     * Check if the bytes read from a channel form a balanced parentheses
+     * sequence, with the same rules of <code>check(String)</code>. Each byte is
+     * a character, so the content must be in an encoding compatible with
+     * ASCII, such as UTF-8. The channel is read until its end in a single
+     * pass, and it is not closed.
+     * 
+     * @param in
+     *               the channel to check
+     * @return true if the bytes read contain a balanced parentheses sequence,
+     *         false otherwise
+     * @throws IllegalArgumentException
+     *                                      if the channel contains at least a
+     *                                      character different form:'(', ')',
+     *                                      '[', ']', '{', '}', white space ' ',
+     *                                      tab '\t' and newline '\n'
+     * @throws IOException
+     *                                      if an I/O error occurs
+     */
+    public boolean check(ReadableByteChannel in) throws IOException {
+        if (in == null)
+            throw new NullPointerException("the channel is null.");
+        this.stack.clear();
+        boolean balanced = true;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (in.read(buffer) != -1) {
+            buffer.flip();
+            balanced = this.step(buffer, balanced);
+            buffer.clear();
+        }
+        return balanced && this.stack.isEmpty();
+    }
+
+    /**
+     * Check if a file contains a balanced parentheses sequence, with the same
+     * rules of <code>check(String)</code>. The file is mapped in memory a
+     * region at a time and read in a single pass, so it is never copied in
+     * the heap. Each byte is a character, so the content must be in an
+     * encoding compatible with ASCII, such as UTF-8.
+     * 
+     * @param file
+     *                 the file to check
+     * @return true if the file contains a balanced parentheses sequence,
+     *         false otherwise
+     * @throws IllegalArgumentException
+     *                                      if the file contains at least a
+     *                                      character different form:'(', ')',
+     *                                      '[', ']', '{', '}', white space ' ',
+     *                                      tab '\t' and newline '\n'
+     * @throws IOException
+     *                                      if an I/O error occurs
+     */
+    public boolean check(Path file) throws IOException {
+        if (file == null)
+            throw new NullPointerException("the path is null.");
+        this.stack.clear();
+        boolean balanced = true;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            //mappo il file una regione alla volta, perché una mappatura non supera i 2GB.
+            for (long position = 0; position < length; position += MAPPING_SIZE) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY,
+                        position, Math.min(MAPPING_SIZE, length - position));
+                balanced = this.step(region, balanced);
+            }
+        }
+        return balanced && this.stack.isEmpty();
+    }
+
+    /*
+     * Processes the remaining bytes of a buffer as characters.
+     */
+    private boolean step(ByteBuffer buffer, boolean balanced) {
+        while (buffer.hasRemaining())
+            balanced = this.step((char) (buffer.get() & 0xFF), balanced);
+        return balanced;
+    }
+
+    /*
+     * Processes the next character of a stream. balanced is false if the
+     * characters already read can not be balanced: in this case the stack is
+     * not used anymore, but the character is still checked, so that an
+     * illegal character is always reported as in check(String). Returns the
+     * new value of balanced.
+     */
+    private boolean step(char t, boolean balanced) {
+        byte kind = t < KINDS.length ? KINDS[t] : ILLEGAL;
+        if (kind == ILLEGAL)
+            throw new IllegalArgumentException("this character is incorrect.");
+        if (!balanced)
             return false;
+        if (kind == OPEN)
+            stack.push(t);
+        //una parentesi chiusa deve corrispondere all'ultima aperta.
+        else if (kind == CLOSE)
+            return !stack.isEmpty() && stack.pop() == OPENING[t];
+        return true;
+    }
+
+    /**
+     * Check if a given string contains a balanced parentheses sequence, with
+     * the same rules and the same result of <code>check(String)</code>, using
+     * the common <code>ForkJoinPool</code>.
+     * 
+     * @param s
+     *              the string to check
+     * @return true if s contains a balanced parentheses sequence, false
+     *         otherwise
+     * @throws IllegalArgumentException
+     *                                      if s contains at least a character
+     *                                      different form:'(', ')', '[', ']',
+     *                                      '{', '}', white space ' ', tab '\t'
+     *                                      and newline '\n'
+     */
+    public boolean checkParallel(String s) {
+        return this.checkParallel(s, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Check if a given string contains a balanced parentheses sequence, with
+     * the same rules and the same result of <code>check(String)</code>. The
+     * string is split in chunks, each chunk is reduced in parallel to the
+     * sequence of its unmatched closed parentheses followed by the sequence of
+     * its unmatched open parentheses, and the summaries of adjacent chunks are
+     * merged matching the open parentheses of the first with the closed
+     * parentheses of the second. The string is balanced if no pair of matched
+     * parentheses has different types and the final summary is empty.
+     * 
+     * @param s
+     *                 the string to check
+     * @param pool
+     *                 the pool that executes the check
+     * @return true if s contains a balanced parentheses sequence, false
+     *         otherwise
+     * @throws IllegalArgumentException
+     *                                      if s contains at least a character
+     *                                      different form:'(', ')', '[', ']',
+     *                                      '{', '}', white space ' ', tab '\t'
+     *                                      and newline '\n'
+     */
+    public boolean checkParallel(String s, ForkJoinPool pool) {
+        if (s == null)
+            throw new NullPointerException("the string is null.");
+        if (pool == null)
+            throw new NullPointerException("the pool is null.");
+        return pool.invoke(new SummaryTask(i -> s.charAt((int) i), 0, s.length()))
+                .isBalanced();
+    }
+
+    /**
+     * Check if a file contains a balanced parentheses sequence, with the same
+     * rules of <code>check(Path)</code>, using the common
+     * <code>ForkJoinPool</code>. The file is mapped in memory and its chunks
+     * are checked in parallel as in <code>checkParallel(String)</code>.
+     * 
+     * @param file
+     *                 the file to check
+     * @return true if the file contains a balanced parentheses sequence,
+     *         false otherwise
+     * @throws IllegalArgumentException
+     *                                      if the file contains at least a
+     *                                      character different form:'(', ')',
+     *                                      '[', ']', '{', '}', white space ' ',
+     *                                      tab '\t' and newline '\n'
+     * @throws IOException
+     *                                      if an I/O error occurs
+     */
+    public boolean checkParallel(Path file) throws IOException {
+        if (file == null)
+            throw new NullPointerException("the path is null.");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((length
+                    + MAPPING_SIZE - 1) / MAPPING_SIZE)];
+            for (int r = 0; r < regions.length; r++) {
+                long position = r * MAPPING_SIZE;
+                regions[r] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAPPING_SIZE, length - position));
+            }
+            //le letture assolute non modificano i buffer, quindi i task possono condividerli.
+            Input input = i -> (char) (regions[(int) (i / MAPPING_SIZE)]
+                    .get((int) (i % MAPPING_SIZE)) & 0xFF);
+            return ForkJoinPool.commonPool()
+                    .invoke(new SummaryTask(input, 0, length)).isBalanced();
+        }
+    }
+
+    /*
+     * Sequence of characters accessed by position.
+     */
+    @FunctionalInterface
+    private interface Input {
+        char charAt(long i);
+    }
+
+    /*
+     * Task that computes the summary of the characters of an input in the
+     * interval [from, to).
+     */
+    @SuppressWarnings("serial")
+    private static final class SummaryTask extends RecursiveTask<Summary> {
+
+        private final Input input;
+
+        private final long from;
+
+        private final long to;
+
+        SummaryTask(Input input, long from, long to) {
+            this.input = input;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (to - from <= PARALLEL_THRESHOLD)
+                return Summary.of(input, from, to);
+            long mid = (from + to) >>> 1;
+            SummaryTask right = new SummaryTask(input, mid, to);
+            right.fork();
+            Summary left;
+            try {
+                left = new SummaryTask(input, from, mid).compute();
+            } catch (RuntimeException e) {
+                //aspetto l'altra metà, che potrebbe ancora leggere un file che sta per essere chiuso.
+                if (!right.tryUnfork())
+                    right.quietlyJoin();
+                throw e;
+            }
+            return left.merge(right.join());
+        }
+    }
+
+    /*
+     * Summary of a chunk of parentheses: the closed parentheses that have no
+     * open parenthesis before them in the chunk, in order, and the open
+     * parentheses that have no closed parenthesis after them, from the first
+     * to the last. mismatch is true if two matched parentheses have different
+     * types, and then the whole input is not balanced.
+     */
+    private static final class Summary {
+
+        private CharDeque closers = new CharDeque();
+
+        private CharDeque openers = new CharDeque();
+
+        private boolean mismatch;
+
+        /*
+         * Computes the summary of the characters in [from, to), checking all
+         * of them even after a mismatch.
+         */
+        static Summary of(Input input, long from, long to) {
+            Summary summary = new Summary();
+            for (long i = from; i < to; i++) {
+                char t = input.charAt(i);
+                byte kind = t < KINDS.length ? KINDS[t] : ILLEGAL;
+                if (kind == OPEN)
+                    summary.openers.addLast(t);
+                else if (kind == CLOSE)
+                    summary.close(t);
+                else if (kind == ILLEGAL)
+                    throw new IllegalArgumentException("this character is incorrect.");
+            }
+            return summary;
+        }
+
+        /*
+         * Matches a closed parenthesis with the last unmatched open one, if
+         * any.
+         */
+        private void close(char t) {
+            //nessuna parentesi aperta da chiudere: resta aperta verso sinistra.
+            if (openers.isEmpty()) {
+                closers.addLast(t);
+                return;
+            }
+            if (openers.removeLast() != OPENING[t])
+                mismatch = true;
+        }
+
+        /*
+         * Merges this summary with the summary of the following chunk and
+         * returns the result, reusing this object.
+         */
+        Summary merge(Summary next) {
+            mismatch |= next.mismatch;
+            //le parentesi chiuse del secondo pezzo chiudono quelle aperte del primo.
+            while (!next.closers.isEmpty() && !openers.isEmpty())
+                this.close(next.closers.removeFirst());
+            closers = concat(closers, next.closers);
+            openers = concat(openers, next.openers);
+            return this;
+        }
+
+        /*
+         * Returns the concatenation of a and b, moving the characters of the
+         * shorter one into the longer one.
+         */
+        private static CharDeque concat(CharDeque a, CharDeque b) {
+            if (a.size() >= b.size()) {
+                while (!b.isEmpty())
+                    a.addLast(b.removeFirst());
+                return a;
+            }
+            while (!a.isEmpty())
+                b.addFirst(a.removeLast());
+            return b;
+        }
+
+        boolean isBalanced() {
+            return !mismatch && closers.isEmpty() && openers.isEmpty();
+        }
     }
 }
@@ -0,0 +1,349 @@
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Class that provides an implementation of a "dynamic" min-priority queue based
+ * on a d-ary heap, whose arity d is chosen at construction. It offers the same
+ * operations of <code>TernaryHeapMinPriorityQueue</code>, but the heap is
+ * represented by two parallel arrays: the elements and their priorities, as
+ * primitive <code>double</code> values. The comparisons made while an element
+ * moves in the heap read only the array of the priorities, which is contiguous
+ * in memory, without calling <code>getPriority()</code> on the elements. The
+ * elements move with iterative sifts that shift the other elements into a
+ * "hole", and the removal of the minimum takes the last element of the arrays
+ * in constant time.
+ *
+ * A small arity makes the insertions and the decreases faster, a large arity
+ * makes the extractions faster and the heap shallower; 2, 3, 4 and 8 are the
+ * usual choices. The priority of an element must be changed only with
+ * <code>decreasePriority</code>, <code>increasePriority</code> or
+ * <code>changePriority</code> while the element is in the queue. Duplicated
+ * elements are permitted while <code>null</code> elements are not permitted.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class DaryHeapMinPriorityQueue {
+
+    /*
+     * Initial capacity of the arrays
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /*
+     * Number of children of each node
+     */
+    private final int arity;
+
+    /*
+     * Elements of the heap, in positions from 0 to size - 1
+     */
+    private PriorityQueueElement[] elements;
+
+    /*
+     * Priority of the element in the same position of the array elements
+     */
+    private double[] priorities;
+
+    /*
+     * Current number of elements
+     */
+    private int size;
+
+    /**
+     * Create an empty queue.
+     *
+     * @param arity
+     *                  the number of children of each node of the heap
+     * @throws IllegalArgumentException
+     *                                      if arity is lower than 2
+     */
+    public DaryHeapMinPriorityQueue(int arity) {
+        if (arity < 2)
+            throw new IllegalArgumentException("the arity is lower than 2.");
+        this.arity = arity;
+        this.elements = new PriorityQueueElement[INITIAL_CAPACITY];
+        this.priorities = new double[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * @return the number of children of each node of the heap
+     */
+    public int getArity() {
+        return arity;
+    }
+
+    /**
+     * Return the current size of this queue.
+     *
+     * @return the number of elements currently in this queue.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if this queue contains no elements, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Add an element to this min-priority queue. The current priority
+     * associated with the element will be used to place it in the correct
+     * position in the heap. The handle of the element will also be set
+     * accordingly.
+     *
+     * @param element
+     *                    the new element to add
+     * @throws NullPointerException
+     *                                  if the element passed is null
+     */
+    public void insert(PriorityQueueElement element) {
+        if (element == null)
+            throw new NullPointerException("the element is null");
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size << 1);
+            priorities = Arrays.copyOf(priorities, size << 1);
+        }
+        size++;
+        siftUp(size - 1, element, element.getPriority());
+    }
+
+    /**
+     * Returns the current minimum element of this min-priority queue without
+     * extracting it. This operation does not affect the heap.
+     *
+     * @return the current minimum element of this min-priority queue
+     *
+     * @throws NoSuchElementException
+     *                                    if this min-priority queue is empty
+     */
+    public PriorityQueueElement minimum() {
+        if (size == 0)
+            throw new NoSuchElementException("this queue is empty");
+        return elements[0];
+    }
+
+    /**
+     * Extract the current minimum element from this min-priority queue. The
+     * heap will be updated accordingly.
+     *
+     * @return the current minimum element
+     * @throws NoSuchElementException
+     *                                    if this min-priority queue is empty
+     */
+    public PriorityQueueElement extractMinimum() {
+        if (size == 0)
+            throw new NoSuchElementException("this queue is empty");
+        PriorityQueueElement min = elements[0];
+        //tolgo l'ultimo elemento in tempo costante e lo faccio scendere dalla radice.
+        size--;
+        PriorityQueueElement last = elements[size];
+        double lastPriority = priorities[size];
+        elements[size] = null;
+        if (size > 0)
+            siftDown(0, last, lastPriority);
+        return min;
+    }
+
+    /**
+     * Decrease the priority associated to an element of this min-priority
+     * queue. The position of the element in the heap is changed accordingly,
+     * and the changed element may become the minimum element. The handle of
+     * the element will also be changed accordingly.
+     *
+     * @param element
+     *                        the element whose priority will be decreased, it
+     *                        must currently be inside this min-priority queue
+     * @param newPriority
+     *                        the new priority to assign to the element
+     *
+     * @throws NoSuchElementException
+     *                                      if the element is not currently
+     *                                      present in this min-priority queue
+     * @throws IllegalArgumentException
+     *                                      if the specified newPriority is
+     *                                      greater than the current priority
+     *                                      of the element
+     */
+    public void decreasePriority(PriorityQueueElement element,
+            double newPriority) {
+        if (!contains(element))
+            throw new NoSuchElementException("the element doesn't exists");
+        int i = element.getHandle();
+        if (priorities[i] < newPriority)
+            throw new IllegalArgumentException("the new priority has incorrect.");
+        element.setPriority(newPriority);
+        siftUp(i, element, newPriority);
+    }
+
+    /**
+     * Increase the priority associated to an element of this min-priority
+     * queue. The element moves towards the leaves of the heap and its handle
+     * is changed accordingly.
+     *
+     * @param element
+     *                        the element whose priority will be increased, it
+     *                        must currently be inside this min-priority queue
+     * @param newPriority
+     *                        the new priority to assign to the element
+     *
+     * @throws NoSuchElementException
+     *                                      if the element is not currently
+     *                                      present in this min-priority queue
+     * @throws IllegalArgumentException
+     *                                      if the specified newPriority is
+     *                                      less than the current priority of
+     *                                      the element
+     */
+    public void increasePriority(PriorityQueueElement element,
+            double newPriority) {
+        if (!contains(element))
+            throw new NoSuchElementException("the element doesn't exists");
+        int i = element.getHandle();
+        if (priorities[i] > newPriority)
+            throw new IllegalArgumentException("the new priority has incorrect.");
+        element.setPriority(newPriority);
+        siftDown(i, element, newPriority);
+    }
+
+    /**
+     * Change the priority associated to an element of this min-priority
+     * queue, moving the element towards the root or towards the leaves as
+     * needed. The handle of the element is changed accordingly.
+     *
+     * @param element
+     *                        the element whose priority will be changed, it
+     *                        must currently be inside this min-priority queue
+     * @param newPriority
+     *                        the new priority to assign to the element
+     *
+     * @throws NoSuchElementException
+     *                                      if the element is not currently
+     *                                      present in this min-priority queue
+     */
+    public void changePriority(PriorityQueueElement element,
+            double newPriority) {
+        if (!contains(element))
+            throw new NoSuchElementException("the element doesn't exists");
+        int i = element.getHandle();
+        double oldPriority = priorities[i];
+        element.setPriority(newPriority);
+        if (newPriority < oldPriority)
+            siftUp(i, element, newPriority);
+        else
+            siftDown(i, element, newPriority);
+    }
+
+    /**
+     * Remove an element from this min-priority queue in O(log n) time, using
+     * its handle to find it.
+     *
+     * @param element
+     *                    the element to remove, it must currently be inside
+     *                    this min-priority queue
+     *
+     * @throws NoSuchElementException
+     *                                    if the element is not currently
+     *                                    present in this min-priority queue
+     */
+    public void delete(PriorityQueueElement element) {
+        if (!contains(element))
+            throw new NoSuchElementException("the element doesn't exists");
+        int i = element.getHandle();
+        size--;
+        PriorityQueueElement last = elements[size];
+        double lastPriority = priorities[size];
+        elements[size] = null;
+        if (i == size)
+            return;
+        //l'ultimo elemento prende il posto di quello tolto e può dover salire o scendere.
+        if (i > 0 && priorities[(i - 1) / arity] > lastPriority)
+            siftUp(i, last, lastPriority);
+        else
+            siftDown(i, last, lastPriority);
+    }
+
+    /**
+     * Check in constant time, using its handle, if an element is currently in
+     * this min-priority queue.
+     *
+     * @param element
+     *                    the element to search
+     * @return true if the element is in this queue, false otherwise
+     */
+    public boolean contains(PriorityQueueElement element) {
+        if (element == null)
+            return false;
+        int handle = element.getHandle();
+        return handle >= 0 && handle < size && elements[handle] == element;
+    }
+
+    /**
+     * Erase all the elements from this min-priority queue. After this operation
+     * this min-priority queue is empty.
+     */
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+    }
+
+    /*
+     * Places the element with the given priority in the hole at position i,
+     * moving down the ancestors with a greater priority.
+     */
+    private void siftUp(int i, PriorityQueueElement element, double priority) {
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            if (priorities[parent] <= priority)
+                break;
+            //il padre scende nel buco.
+            move(parent, i);
+            i = parent;
+        }
+        place(i, element, priority);
+    }
+
+    /*
+     * Places the element with the given priority in the hole at position i,
+     * moving up the smallest child while it has a lower priority.
+     */
+    private void siftDown(int i, PriorityQueueElement element, double priority) {
+        while (true) {
+            int first = arity * i + 1;
+            if (first >= size)
+                break;
+            int last = Math.min(first + arity, size);
+            //cerco il figlio con la priorità minore leggendo solo l'array delle priorità.
+            int smallest = first;
+            double smallestPriority = priorities[first];
+            for (int c = first + 1; c < last; c++)
+                if (priorities[c] < smallestPriority) {
+                    smallest = c;
+                    smallestPriority = priorities[c];
+                }
+            if (smallestPriority >= priority)
+                break;
+            move(smallest, i);
+            i = smallest;
+        }
+        place(i, element, priority);
+    }
+
+    private void move(int from, int to) {
+        elements[to] = elements[from];
+        priorities[to] = priorities[from];
+        elements[to].setHandle(to);
+    }
+
+    private void place(int i, PriorityQueueElement element, double priority) {
+        elements[i] = element;
+        priorities[i] = priority;
+        element.setHandle(i);
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interface to enable the elements of a <code>SpillingDeque</code> to be
+ * written to and read from the files used by the deque. The buffers passed to
+ * the methods are views of memory-mapped files: the deque does not copy the
+ * bytes of the elements in intermediate arrays.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ * @param <E>
+ *                the type of the elements
+ */
+public interface ElementSerializer<E> {
+
+    /**
+     * Returns the number of bytes needed to represent an element.
+     *
+     * @param e
+     *              the element
+     * @return the number of bytes written by <code>serialize(e, out)</code>
+     */
+    public int serializedSize(E e);
+
+    /**
+     * Writes the representation of an element in a buffer. The buffer starts
+     * at the current position and has exactly
+     * <code>serializedSize(e)</code> remaining bytes.
+     *
+     * @param e
+     *                the element to write
+     * @param out
+     *                the buffer to write into
+     */
+    public void serialize(E e, ByteBuffer out);
+
+    /**
+     * Reads an element from a buffer. The remaining bytes of the buffer are
+     * exactly the ones written by <code>serialize</code>.
+     *
+     * @param in
+     *               the buffer to read from
+     * @return the element read, not null
+     */
+    public E deserialize(ByteBuffer in);
+}
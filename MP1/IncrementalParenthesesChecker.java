@@ -0,0 +1,719 @@
+package it.unicam.cs.asdl2021.mp1;
+
+/**
+ * An object of this class keeps a text made of the characters '(', ')', '[',
+ * ']', '{', '}', white spaces, tabs and newlines, that can be modified with
+ * insertions and deletions, and tells after each modification if the text is
+ * a string of balanced parentheses, with the same rules of
+ * <code>BalancedParenthesesChecker</code>, and where the first error is.
+ *
+ * The text is divided in blocks of at most <code>MAX_BLOCK</code> characters
+ * kept in the nodes of an AVL tree, in order. Each node stores the summary of
+ * the parentheses of its subtree: the closed parentheses that are not matched
+ * inside the subtree, the open parentheses that are not matched inside the
+ * subtree, and the position of the first closed parenthesis matched with an
+ * open one of a different type. The unmatched parentheses are kept in
+ * persistent balanced trees that share their nodes between the summaries, so
+ * merging the summaries of two parts only compares the pairs of parentheses
+ * that cross the boundary between the parts, at most h where h is the nesting
+ * depth of the text, and splits and concatenates the unmatched ones in
+ * O(log n) time, however many they are. An edit changes the blocks of a few
+ * nodes and recomputes only the summaries on their paths to the root, so it
+ * takes O(b + (h + log n) log n) time, where b is the size of the edit plus
+ * the size of a block; the whole text is never scanned again, even when it
+ * contains many unmatched parentheses.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class IncrementalParenthesesChecker {
+
+    // Number of characters of the blocks created splitting a long block
+    private static final int BLOCK = 512;
+
+    // Maximum number of characters of a block
+    private static final int MAX_BLOCK = 2 * BLOCK;
+
+    // Root of the tree of the blocks
+    private Node root;
+
+    /**
+     * Create a new checker with an empty text.
+     */
+    public IncrementalParenthesesChecker() {
+        this.root = null;
+    }
+
+    /**
+     * Create a new checker with the given initial text.
+     *
+     * @param text
+     *                 the initial text
+     * @throws IllegalArgumentException
+     *                                      if text contains at least a
+     *                                      character different form:'(', ')',
+     *                                      '[', ']', '{', '}', white space ' ',
+     *                                      tab '\t' and newline '\n'
+     */
+    public IncrementalParenthesesChecker(CharSequence text) {
+        this();
+        this.insert(0, text);
+    }
+
+    /**
+     * @return the number of characters of the text
+     */
+    public int length() {
+        return length(root);
+    }
+
+    /**
+     * Inserts some characters in the text.
+     *
+     * @param offset
+     *                   the position where the characters are inserted, from
+     *                   0 to the length of the text
+     * @param text
+     *                   the characters to insert
+     * @throws IndexOutOfBoundsException
+     *                                       if offset is negative or greater
+     *                                       than the length of the text
+     * @throws IllegalArgumentException
+     *                                       if text contains at least a
+     *                                       character different form:'(', ')',
+     *                                       '[', ']', '{', '}', white space '
+     *                                       ', tab '\t' and newline '\n'; in
+     *                                       this case the text is not modified
+     */
+    public void insert(int offset, CharSequence text) {
+        if (text == null)
+            throw new NullPointerException("the text is null.");
+        if (offset < 0 || offset > this.length())
+            throw new IndexOutOfBoundsException("the offset is not valid.");
+        //controllo i caratteri prima di modificare il testo.
+        for (int i = 0; i < text.length(); i++)
+            if (kind(text.charAt(i)) == ILLEGAL)
+                throw new IllegalArgumentException("this character is incorrect.");
+        if (text.length() == 0)
+            return;
+        if (root == null)
+            root = new Node(new StringBuilder());
+        root = insert(root, offset, text);
+    }
+
+    /**
+     * Deletes some characters from the text.
+     *
+     * @param offset
+     *                   the position of the first character to delete
+     * @param len
+     *                   the number of characters to delete
+     * @throws IndexOutOfBoundsException
+     *                                       if offset or len are negative or
+     *                                       offset + len is greater than the
+     *                                       length of the text
+     */
+    public void delete(int offset, int len) {
+        if (offset < 0 || len < 0 || offset > this.length() - len)
+            throw new IndexOutOfBoundsException("the interval is not valid.");
+        if (len > 0)
+            root = delete(root, offset, len);
+    }
+
+    /**
+     * @return true if the text is a string of balanced parentheses, false
+     *         otherwise
+     */
+    public boolean isBalanced() {
+        return this.firstErrorPosition() == -1;
+    }
+
+    /**
+     * Returns the position where a check of the text from the beginning finds
+     * that it is not balanced: the position of the first closed parenthesis
+     * that has no open parenthesis to match or that matches an open
+     * parenthesis of a different type, or the length of the text if all the
+     * closed parentheses are matched but some open parenthesis is not closed.
+     *
+     * @return the position of the first error, or -1 if the text is balanced
+     */
+    public int firstErrorPosition() {
+        if (root == null)
+            return -1;
+        Summary s = root.summary;
+        int error = s.firstMismatch;
+        if (s.closes != null) {
+            int first = Brackets.firstPosition(s.closes);
+            if (error == -1 || first < error)
+                error = first;
+        }
+        if (error == -1 && s.opens != null)
+            error = root.length;
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.length());
+        appendTo(root, sb);
+        return sb.toString();
+    }
+
+    /*
+     * Appends the blocks of a subtree, in order.
+     */
+    private static void appendTo(Node t, StringBuilder sb) {
+        if (t == null)
+            return;
+        appendTo(t.left, sb);
+        sb.append(t.text);
+        appendTo(t.right, sb);
+    }
+
+    /*
+     * Inserts the text at the given position of a subtree and returns its new
+     * root.
+     */
+    private static Node insert(Node t, int offset, CharSequence text) {
+        int l = length(t.left);
+        int own = t.text.length();
+        if (offset < l || (offset == l && t.left != null))
+            t.left = insert(t.left, offset, text);
+        else if (offset <= l + own || t.right == null) {
+            t.text.insert(offset - l, text);
+            //il blocco è troppo lungo: sposto la sua parte finale in nuovi blocchi.
+            if (t.text.length() > MAX_BLOCK) {
+                int end = t.text.length();
+                int last = BLOCK + (end - BLOCK - 1) / BLOCK * BLOCK;
+                for (int from = last; from >= BLOCK; from -= BLOCK) {
+                    Node n = new Node(new StringBuilder(t.text.substring(from,
+                            Math.min(from + BLOCK, end))));
+                    t.right = insertFirst(t.right, n);
+                    end = from;
+                }
+                t.text.setLength(BLOCK);
+            }
+            t.own = Summary.of(t.text);
+        } else
+            t.right = insert(t.right, offset - l - own, text);
+        return join(t.left, t, t.right);
+    }
+
+    /*
+     * Deletes len characters starting from offset in a subtree, removing the
+     * nodes that become empty, and returns its new root.
+     */
+    private static Node delete(Node t, int offset, int len) {
+        int l = length(t.left);
+        int own = t.text.length();
+        int end = offset + len;
+        Node left = t.left;
+        Node right = t.right;
+        if (offset < l)
+            left = delete(left, offset, Math.min(end, l) - offset);
+        //parte dell'intervallo che cade nel blocco del nodo.
+        int from = Math.max(offset, l);
+        int to = Math.min(end, l + own);
+        if (from < to) {
+            t.text.delete(from - l, to - l);
+            t.own = Summary.of(t.text);
+        }
+        if (end > l + own)
+            right = delete(right, Math.max(offset - l - own, 0),
+                    end - Math.max(offset, l + own));
+        if (t.text.length() == 0)
+            return join(left, right);
+        return join(left, t, right);
+    }
+
+    /*
+     * Inserts a node before all the nodes of a subtree and returns its new
+     * root.
+     */
+    private static Node insertFirst(Node t, Node n) {
+        if (t == null) {
+            n.left = null;
+            n.right = null;
+            update(n);
+            return n;
+        }
+        t.left = insertFirst(t.left, n);
+        return join(t.left, t, t.right);
+    }
+
+    /*
+     * Joins the trees l and r, in this order, and returns the new root.
+     */
+    private static Node join(Node l, Node r) {
+        if (l == null)
+            return r;
+        if (r == null)
+            return l;
+        //il primo nodo di r diventa il nodo che unisce i due alberi.
+        Node[] first = new Node[1];
+        Node rest = removeFirst(r, first);
+        return join(l, first[0], rest);
+    }
+
+    /*
+     * Removes the first node of a subtree, saving it in removed[0], and
+     * returns the new root.
+     */
+    private static Node removeFirst(Node t, Node[] removed) {
+        if (t.left == null) {
+            removed[0] = t;
+            return t.right;
+        }
+        t.left = removeFirst(t.left, removed);
+        return join(t.left, t, t.right);
+    }
+
+    /*
+     * Joins the tree l, the node k and the tree r, in this order, and returns
+     * the root of the resulting balanced tree.
+     */
+    private static Node join(Node l, Node k, Node r) {
+        if (height(l) > height(r) + 1) {
+            l.right = join(l.right, k, r);
+            return balance(l);
+        }
+        if (height(r) > height(l) + 1) {
+            r.left = join(l, k, r.left);
+            return balance(r);
+        }
+        k.left = l;
+        k.right = r;
+        update(k);
+        return k;
+    }
+
+    private static int height(Node n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static int length(Node n) {
+        return n == null ? 0 : n.length;
+    }
+
+    /*
+     * Recomputes height, length and summary of a node from its children.
+     */
+    private static void update(Node n) {
+        n.height = Math.max(height(n.left), height(n.right)) + 1;
+        n.length = length(n.left) + n.text.length() + length(n.right);
+        Summary s = n.own;
+        if (n.left != null)
+            s = Summary.merge(n.left.summary, n.left.length, s);
+        if (n.right != null)
+            s = Summary.merge(s, length(n.left) + n.text.length(), n.right.summary);
+        n.summary = s;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    /*
+     * Restores the AVL property in a node whose subtrees differ in height by
+     * at most two, and returns the new root of the subtree.
+     */
+    private static Node balance(Node n) {
+        update(n);
+        int b = height(n.left) - height(n.right);
+        if (b > 1) {
+            if (height(n.left.left) < height(n.left.right))
+                n.left = rotateLeft(n.left);
+            return rotateRight(n);
+        }
+        if (b < -1) {
+            if (height(n.right.right) < height(n.right.left))
+                n.right = rotateRight(n.right);
+            return rotateLeft(n);
+        }
+        return n;
+    }
+
+    // Kinds of characters
+    private static final int ILLEGAL = 0, BLANK = 1, OPEN = 2, CLOSE = 3;
+
+    private static int kind(char c) {
+        switch (c) {
+            case '(':
+            case '[':
+            case '{':
+                return OPEN;
+            case ')':
+            case ']':
+            case '}':
+                return CLOSE;
+            case ' ':
+            case '\t':
+            case '\n':
+                return BLANK;
+            default:
+                return ILLEGAL;
+        }
+    }
+
+    /*
+     * Node of the tree: a block of the text, the summary of the block and the
+     * summary of the subtree.
+     */
+    private static final class Node {
+
+        private final StringBuilder text;
+
+        private Summary own;
+
+        private Summary summary;
+
+        private Node left;
+
+        private Node right;
+
+        private int height;
+
+        private int length;
+
+        Node(StringBuilder text) {
+            this.text = text;
+            this.own = Summary.of(text);
+            update(this);
+        }
+    }
+
+    /*
+     * Immutable summary of a part of the text. The positions are relative to
+     * the beginning of the part. The unmatched closed parentheses are in
+     * order, the unmatched open parentheses from the first to the last; an
+     * empty sequence is null. firstMismatch is the position of the first
+     * closed parenthesis matched with an open parenthesis of a different
+     * type, or -1.
+     */
+    private static final class Summary {
+
+        private static final Summary EMPTY = new Summary(null, null, -1);
+
+        private final Brackets closes;
+
+        private final Brackets opens;
+
+        private final int firstMismatch;
+
+        private Summary(Brackets closes, Brackets opens, int firstMismatch) {
+            this.closes = closes;
+            this.opens = opens;
+            this.firstMismatch = firstMismatch;
+        }
+
+        /*
+         * Computes the summary of a block with the same stack of check(String).
+         */
+        static Summary of(CharSequence text) {
+            CharDeque closeTypes = new CharDeque();
+            IntDeque closePositions = new IntDeque();
+            CharDeque openTypes = new CharDeque();
+            IntDeque openPositions = new IntDeque();
+            int firstMismatch = -1;
+            for (int i = 0; i < text.length(); i++) {
+                char t = text.charAt(i);
+                int k = kind(t);
+                if (k == OPEN) {
+                    openTypes.addLast(t);
+                    openPositions.addLast(i);
+                } else if (k == CLOSE) {
+                    //nessuna parentesi aperta nel blocco: resta da chiudere a sinistra.
+                    if (openTypes.isEmpty()) {
+                        closeTypes.addLast(t);
+                        closePositions.addLast(i);
+                    } else {
+                        openPositions.removeLast();
+                        if (!matches(openTypes.removeLast(), t) && firstMismatch == -1)
+                            firstMismatch = i;
+                    }
+                }
+            }
+            if (closeTypes.isEmpty() && openTypes.isEmpty() && firstMismatch == -1)
+                return EMPTY;
+            return new Summary(Brackets.of(closeTypes, closePositions),
+                    Brackets.of(openTypes, openPositions), firstMismatch);
+        }
+
+        /*
+         * Computes the summary of a part a of length aLength followed by a part
+         * b: the last open parentheses of a are matched with the first closed
+         * ones of b. Only the matched pairs are visited, the other parentheses
+         * are moved splitting and joining the trees.
+         */
+        static Summary merge(Summary a, int aLength, Summary b) {
+            if (b == EMPTY)
+                return a;
+            if (a == EMPTY && aLength == 0)
+                return b;
+            int na = Brackets.size(a.opens);
+            int nb = Brackets.size(b.closes);
+            int k = Math.min(na, nb);
+            int firstMismatch = a.firstMismatch;
+            if (firstMismatch == -1) {
+                //errori in b: il primo tra le coppie formate dall'unione e quelli interni a b.
+                int mismatch = b.firstMismatch;
+                if (k > 0) {
+                    char[] openTypes = new char[k];
+                    Brackets.collect(a.opens, 0, na - k, na, openTypes, null, 0);
+                    char[] closeTypes = new char[k];
+                    int[] closePositions = new int[k];
+                    Brackets.collect(b.closes, 0, 0, k, closeTypes, closePositions, 0);
+                    for (int i = 0; i < k; i++)
+                        if (!matches(openTypes[k - 1 - i], closeTypes[i])) {
+                            if (mismatch == -1 || closePositions[i] < mismatch)
+                                mismatch = closePositions[i];
+                            break;
+                        }
+                }
+                if (mismatch != -1)
+                    firstMismatch = aLength + mismatch;
+            }
+            Brackets closes = Brackets.concat(a.closes,
+                    Brackets.shifted(Brackets.split(b.closes, k)[1], aLength));
+            Brackets opens = Brackets.concat(Brackets.split(a.opens, na - k)[0],
+                    Brackets.shifted(b.opens, aLength));
+            return new Summary(closes, opens, firstMismatch);
+        }
+
+        private static boolean matches(char open, char close) {
+            return open == (close == ')' ? '(' : close == ']' ? '[' : '{');
+        }
+    }
+
+    /*
+     * Node of an immutable AVL tree representing a sequence of parentheses and
+     * their positions. The positions of all the nodes of the subtree are
+     * increased by shift, so a whole sequence can be moved in constant time
+     * creating a new root; the operations never modify a node, and create new
+     * nodes only along the paths they visit, sharing the others. null is the
+     * empty sequence.
+     */
+    private static final class Brackets {
+
+        private final char type;
+
+        private final int position;
+
+        private final int shift;
+
+        private final Brackets left;
+
+        private final Brackets right;
+
+        private final int size;
+
+        private final int height;
+
+        private Brackets(char type, int position, int shift, Brackets left,
+                Brackets right) {
+            this.type = type;
+            this.position = position;
+            this.shift = shift;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + 1 + size(right);
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+
+        static int size(Brackets t) {
+            return t == null ? 0 : t.size;
+        }
+
+        static int height(Brackets t) {
+            return t == null ? 0 : t.height;
+        }
+
+        /*
+         * Builds a balanced tree with the elements of the two deques, emptying
+         * them.
+         */
+        static Brackets of(CharDeque types, IntDeque positions) {
+            int n = types.size();
+            char[] t = new char[n];
+            int[] p = new int[n];
+            for (int i = 0; i < n; i++) {
+                t[i] = types.removeFirst();
+                p[i] = positions.removeFirst();
+            }
+            return build(t, p, 0, n);
+        }
+
+        private static Brackets build(char[] types, int[] positions, int from,
+                int to) {
+            if (from >= to)
+                return null;
+            int mid = (from + to) >>> 1;
+            return new Brackets(types[mid], positions[mid], 0,
+                    build(types, positions, from, mid),
+                    build(types, positions, mid + 1, to));
+        }
+
+        /*
+         * Returns the sequence with all the positions increased by delta.
+         */
+        static Brackets shifted(Brackets t, int delta) {
+            if (t == null || delta == 0)
+                return t;
+            return new Brackets(t.type, t.position, t.shift + delta, t.left,
+                    t.right);
+        }
+
+        /*
+         * Returns an equal tree whose root has no shift, moving it to the
+         * children.
+         */
+        private static Brackets push(Brackets t) {
+            if (t.shift == 0)
+                return t;
+            return new Brackets(t.type, t.position + t.shift, 0,
+                    shifted(t.left, t.shift), shifted(t.right, t.shift));
+        }
+
+        /*
+         * Returns the position of the first element of a non empty sequence.
+         */
+        static int firstPosition(Brackets t) {
+            int shift = 0;
+            while (t.left != null) {
+                shift += t.shift;
+                t = t.left;
+            }
+            return shift + t.shift + t.position;
+        }
+
+        /*
+         * Copies the elements with index from from to to - 1 in the arrays,
+         * starting from the index n; positions may be null. shift is the sum
+         * of the shifts of the ancestors of t. Returns the index following the
+         * last element copied.
+         */
+        static int collect(Brackets t, int shift, int from, int to,
+                char[] types, int[] positions, int n) {
+            if (t == null || from >= to)
+                return n;
+            shift += t.shift;
+            int l = size(t.left);
+            if (from < l)
+                n = collect(t.left, shift, from, Math.min(to, l), types,
+                        positions, n);
+            if (from <= l && l < to) {
+                types[n] = t.type;
+                if (positions != null)
+                    positions[n] = shift + t.position;
+                n++;
+            }
+            if (to > l + 1)
+                n = collect(t.right, shift, Math.max(from - l - 1, 0),
+                        to - l - 1, types, positions, n);
+            return n;
+        }
+
+        /*
+         * Splits a sequence in the first i elements and the remaining ones.
+         */
+        static Brackets[] split(Brackets t, int i) {
+            //nessun nodo da ricreare se il taglio è a un estremo.
+            if (i <= 0 || i >= size(t))
+                return i <= 0 ? new Brackets[] { null, t }
+                        : new Brackets[] { t, null };
+            t = push(t);
+            int l = size(t.left);
+            Brackets[] parts;
+            if (i <= l) {
+                parts = split(t.left, i);
+                parts[1] = join(parts[1], t, t.right);
+            } else {
+                parts = split(t.right, i - l - 1);
+                parts[0] = join(t.left, t, parts[0]);
+            }
+            return parts;
+        }
+
+        /*
+         * Concatenates two sequences.
+         */
+        static Brackets concat(Brackets l, Brackets r) {
+            if (l == null)
+                return r;
+            if (r == null)
+                return l;
+            //il primo elemento di r diventa il nodo che unisce le due sequenze.
+            Brackets[] parts = split(r, 1);
+            return join(l, parts[0], parts[1]);
+        }
+
+        /*
+         * Joins the sequence l, the element of the node k, whose shift must be
+         * 0, and the sequence r, in this order, in a balanced tree.
+         */
+        private static Brackets join(Brackets l, Brackets k, Brackets r) {
+            if (height(l) > height(r) + 1) {
+                l = push(l);
+                return balance(l.type, l.position, l.left, join(l.right, k, r));
+            }
+            if (height(r) > height(l) + 1) {
+                r = push(r);
+                return balance(r.type, r.position, join(l, k, r.left), r.right);
+            }
+            return new Brackets(k.type, k.position, 0, l, r);
+        }
+
+        /*
+         * Creates a node with the given element and children, restoring the
+         * AVL property if the children differ in height by two.
+         */
+        private static Brackets balance(char type, int position, Brackets l,
+                Brackets r) {
+            if (height(l) > height(r) + 1) {
+                l = push(l);
+                if (height(l.left) < height(l.right))
+                    l = rotateLeft(l.type, l.position, l.left, l.right);
+                l = push(l);
+                return new Brackets(l.type, l.position, 0, l.left,
+                        new Brackets(type, position, 0, l.right, r));
+            }
+            if (height(r) > height(l) + 1) {
+                r = push(r);
+                if (height(r.right) < height(r.left))
+                    r = rotateRight(r.type, r.position, r.left, r.right);
+                r = push(r);
+                return new Brackets(r.type, r.position, 0,
+                        new Brackets(type, position, 0, l, r.left), r.right);
+            }
+            return new Brackets(type, position, 0, l, r);
+        }
+
+        private static Brackets rotateLeft(char type, int position, Brackets l,
+                Brackets r) {
+            r = push(r);
+            return new Brackets(r.type, r.position, 0,
+                    new Brackets(type, position, 0, l, r.left), r.right);
+        }
+
+        private static Brackets rotateRight(char type, int position, Brackets l,
+                Brackets r) {
+            l = push(l);
+            return new Brackets(l.type, l.position, 0, l.left,
+                    new Brackets(type, position, 0, l.right, r));
+        }
+    }
+}
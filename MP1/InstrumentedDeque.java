@@ -0,0 +1,739 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Decorator of a <code>java.util.Deque</code>, typically an
+ * <code>ASDL2021Deque</code>, that records metrics about its usage: the number
+ * of calls of each kind of operation, the maximum size reached by the deque
+ * (high watermark), the number of <code>ConcurrentModificationException</code>
+ * launched by its iterators and, optionally, a histogram of the latencies of
+ * the operations. The metrics are kept in <code>LongAdder</code>s, so the
+ * decorator can be used also on a thread-safe deque without becoming a point
+ * of contention, and can be read at any time with <code>snapshot()</code>.
+ *
+ * The instrumentation is opt-in: a deque that is not wrapped has no overhead
+ * at all. When the latencies are not recorded, the decorator does not read
+ * the clock. The high watermark is computed from a counter of the insertions
+ * minus the removals done through the decorator, without calling the method
+ * <code>size()</code> of the decorated deque, that may take linear time (for
+ * example in <code>ASDL2021ConcurrentDeque</code>). The counter is realigned
+ * with <code>size()</code> only after the bulk removals, whose number of
+ * removed elements is not known, so the high watermark is exact for a deque
+ * modified only through the decorator by one thread at a time, and an
+ * estimate otherwise.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class InstrumentedDeque<E> implements Deque<E> {
+
+    /**
+     * The kinds of operations counted by an <code>InstrumentedDeque</code>.
+     */
+    public enum Operation {
+        /** Insertions at the head: addFirst, offerFirst, push. */
+        ADD_FIRST,
+        /** Insertions at the tail: addLast, offerLast, add, offer, addAll. */
+        ADD_LAST,
+        /** Removals from the head: removeFirst, pollFirst, remove, poll, pop. */
+        REMOVE_FIRST,
+        /** Removals from the tail: removeLast, pollLast. */
+        REMOVE_LAST,
+        /** Reads of the ends: getFirst, getLast, peekFirst, peekLast, peek, element. */
+        PEEK,
+        /** Removals of arbitrary elements and bulk removals, including clear. */
+        REMOVE_OTHER,
+        /** Searches: contains, containsAll. */
+        CONTAINS,
+        /** Creations of iterators and copies to arrays. */
+        ITERATE
+    }
+
+    /*
+     * Number of buckets of the latency histograms: bucket i counts the
+     * operations that lasted between 2^i and 2^(i+1) - 1 nanoseconds
+     */
+    private static final int BUCKETS = 64;
+
+    /*
+     * The decorated deque
+     */
+    private final Deque<E> deque;
+
+    /*
+     * True if the latencies have to be recorded
+     */
+    private final boolean recordLatencies;
+
+    /*
+     * Number of calls of each operation, indexed by ordinal
+     */
+    private final LongAdder[] counters;
+
+    /*
+     * Latency histograms of each operation, indexed by ordinal, null if the
+     * latencies are not recorded
+     */
+    private final LongAdder[][] latencies;
+
+    /*
+     * Insertions minus removals done through this decorator, plus the initial
+     * size of the deque
+     */
+    private final AtomicLong size;
+
+    /*
+     * Maximum size observed after an insertion
+     */
+    private final LongAccumulator highWatermark;
+
+    /*
+     * Number of ConcurrentModificationException launched by the iterators
+     */
+    private final LongAdder concurrentModifications;
+
+    /**
+     * Wraps a deque recording only counters, high watermark and concurrent
+     * modifications.
+     *
+     * @param deque
+     *                  the deque to instrument
+     * @throws NullPointerException
+     *                                  if deque is null
+     */
+    public InstrumentedDeque(Deque<E> deque) {
+        this(deque, false);
+    }
+
+    /**
+     * Wraps a deque.
+     *
+     * @param deque
+     *                            the deque to instrument
+     * @param recordLatencies
+     *                            true if the latency of each operation has to
+     *                            be recorded in a histogram
+     * @throws NullPointerException
+     *                                  if deque is null
+     */
+    public InstrumentedDeque(Deque<E> deque, boolean recordLatencies) {
+        if (deque == null)
+            throw new NullPointerException("the deque is null.");
+        this.deque = deque;
+        this.recordLatencies = recordLatencies;
+        int n = Operation.values().length;
+        this.counters = new LongAdder[n];
+        for (int i = 0; i < n; i++)
+            counters[i] = new LongAdder();
+        if (recordLatencies) {
+            this.latencies = new LongAdder[n][BUCKETS];
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < BUCKETS; j++)
+                    latencies[i][j] = new LongAdder();
+        } else
+            this.latencies = null;
+        this.size = new AtomicLong(deque.size());
+        this.highWatermark = new LongAccumulator(Math::max, 0);
+        this.highWatermark.accumulate(size.get());
+        this.concurrentModifications = new LongAdder();
+    }
+
+    /**
+     * Returns a copy of the current metrics. Metrics recorded concurrently
+     * with this call may or may not be included.
+     *
+     * @return the current metrics
+     */
+    public Snapshot snapshot() {
+        Map<Operation, Long> counts = new EnumMap<Operation, Long>(Operation.class);
+        Map<Operation, long[]> histograms = new EnumMap<Operation, long[]>(Operation.class);
+        for (Operation op : Operation.values()) {
+            counts.put(op, counters[op.ordinal()].sum());
+            if (recordLatencies) {
+                long[] h = new long[BUCKETS];
+                for (int j = 0; j < BUCKETS; j++)
+                    h[j] = latencies[op.ordinal()][j].sum();
+                histograms.put(op, h);
+            }
+        }
+        return new Snapshot(counts, histograms, highWatermark.get(),
+                concurrentModifications.sum());
+    }
+
+    /**
+     * Resets all the metrics. The high watermark is set to the current size.
+     */
+    public void reset() {
+        for (LongAdder c : counters)
+            c.reset();
+        if (recordLatencies)
+            for (LongAdder[] h : latencies)
+                for (LongAdder b : h)
+                    b.reset();
+        highWatermark.reset();
+        highWatermark.accumulate(size.get());
+        concurrentModifications.reset();
+    }
+
+    /**
+     * Immutable copy of the metrics of an <code>InstrumentedDeque</code>.
+     */
+    public static final class Snapshot {
+
+        private final Map<Operation, Long> counts;
+
+        private final Map<Operation, long[]> histograms;
+
+        private final long highWatermark;
+
+        private final long concurrentModifications;
+
+        private Snapshot(Map<Operation, Long> counts,
+                Map<Operation, long[]> histograms, long highWatermark,
+                long concurrentModifications) {
+            this.counts = counts;
+            this.histograms = histograms;
+            this.highWatermark = highWatermark;
+            this.concurrentModifications = concurrentModifications;
+        }
+
+        /**
+         * @param op
+         *               an operation
+         * @return the number of calls of the operation
+         */
+        public long getCount(Operation op) {
+            return counts.get(op);
+        }
+
+        /**
+         * @return the maximum size reached by the deque
+         */
+        public long getHighWatermark() {
+            return highWatermark;
+        }
+
+        /**
+         * @return the number of <code>ConcurrentModificationException</code>
+         *         launched by the iterators of the deque
+         */
+        public long getConcurrentModifications() {
+            return concurrentModifications;
+        }
+
+        /**
+         * Returns the latency histogram of an operation: the element of index
+         * i is the number of calls that lasted between 2^i and 2^(i+1) - 1
+         * nanoseconds (the element 0 also counts the calls shorter than one
+         * nanosecond).
+         *
+         * @param op
+         *               an operation
+         * @return a copy of the histogram, or null if the latencies were not
+         *         recorded
+         */
+        public long[] getLatencyHistogram(Operation op) {
+            long[] h = histograms.get(op);
+            return h == null ? null : h.clone();
+        }
+    }
+
+    /*
+     * Returns the current time if the latencies are recorded, 0 otherwise.
+     */
+    private long start() {
+        return recordLatencies ? System.nanoTime() : 0;
+    }
+
+    /*
+     * Counts an operation and, if needed, records its latency.
+     */
+    private void record(Operation op, long start) {
+        counters[op.ordinal()].increment();
+        if (recordLatencies) {
+            long elapsed = System.nanoTime() - start;
+            int bucket = elapsed <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(elapsed);
+            latencies[op.ordinal()][bucket].increment();
+        }
+    }
+
+    /*
+     * Counts the inserted elements and updates the high watermark, in
+     * constant time.
+     */
+    private void recordInsertion(long n) {
+        highWatermark.accumulate(size.addAndGet(n));
+    }
+
+    /*
+     * Counts the removed elements.
+     */
+    private void recordRemoval() {
+        size.decrementAndGet();
+    }
+
+    /*
+     * Realigns the counter with the size of the deque after a bulk removal.
+     */
+    private void resyncSize() {
+        size.set(deque.size());
+    }
+
+    @Override
+    public void addFirst(E e) {
+        long start = start();
+        try {
+            deque.addFirst(e);
+        } finally {
+            record(Operation.ADD_FIRST, start);
+        }
+        recordInsertion(1);
+    }
+
+    @Override
+    public void addLast(E e) {
+        long start = start();
+        try {
+            deque.addLast(e);
+        } finally {
+            record(Operation.ADD_LAST, start);
+        }
+        recordInsertion(1);
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        long start = start();
+        boolean added;
+        try {
+            added = deque.offerFirst(e);
+        } finally {
+            record(Operation.ADD_FIRST, start);
+        }
+        if (added)
+            recordInsertion(1);
+        return added;
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        long start = start();
+        boolean added;
+        try {
+            added = deque.offerLast(e);
+        } finally {
+            record(Operation.ADD_LAST, start);
+        }
+        if (added)
+            recordInsertion(1);
+        return added;
+    }
+
+    @Override
+    public boolean add(E e) {
+        long start = start();
+        boolean added;
+        try {
+            added = deque.add(e);
+        } finally {
+            record(Operation.ADD_LAST, start);
+        }
+        if (added)
+            recordInsertion(1);
+        return added;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        long start = start();
+        boolean added;
+        try {
+            added = deque.offer(e);
+        } finally {
+            record(Operation.ADD_LAST, start);
+        }
+        if (added)
+            recordInsertion(1);
+        return added;
+    }
+
+    @Override
+    public void push(E e) {
+        long start = start();
+        try {
+            deque.push(e);
+        } finally {
+            record(Operation.ADD_FIRST, start);
+        }
+        recordInsertion(1);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        long start = start();
+        boolean added;
+        try {
+            added = deque.addAll(c);
+        } finally {
+            record(Operation.ADD_LAST, start);
+        }
+        if (added)
+            recordInsertion(c.size());
+        return added;
+    }
+
+    @Override
+    public E removeFirst() {
+        long start = start();
+        E item;
+        try {
+            item = deque.removeFirst();
+        } finally {
+            record(Operation.REMOVE_FIRST, start);
+        }
+        recordRemoval();
+        return item;
+    }
+
+    @Override
+    public E pollFirst() {
+        long start = start();
+        E item;
+        try {
+            item = deque.pollFirst();
+        } finally {
+            record(Operation.REMOVE_FIRST, start);
+        }
+        if (item != null)
+            recordRemoval();
+        return item;
+    }
+
+    @Override
+    public E remove() {
+        long start = start();
+        E item;
+        try {
+            item = deque.remove();
+        } finally {
+            record(Operation.REMOVE_FIRST, start);
+        }
+        recordRemoval();
+        return item;
+    }
+
+    @Override
+    public E poll() {
+        long start = start();
+        E item;
+        try {
+            item = deque.poll();
+        } finally {
+            record(Operation.REMOVE_FIRST, start);
+        }
+        if (item != null)
+            recordRemoval();
+        return item;
+    }
+
+    @Override
+    public E pop() {
+        long start = start();
+        E item;
+        try {
+            item = deque.pop();
+        } finally {
+            record(Operation.REMOVE_FIRST, start);
+        }
+        recordRemoval();
+        return item;
+    }
+
+    @Override
+    public E removeLast() {
+        long start = start();
+        E item;
+        try {
+            item = deque.removeLast();
+        } finally {
+            record(Operation.REMOVE_LAST, start);
+        }
+        recordRemoval();
+        return item;
+    }
+
+    @Override
+    public E pollLast() {
+        long start = start();
+        E item;
+        try {
+            item = deque.pollLast();
+        } finally {
+            record(Operation.REMOVE_LAST, start);
+        }
+        if (item != null)
+            recordRemoval();
+        return item;
+    }
+
+    @Override
+    public E getFirst() {
+        long start = start();
+        try {
+            return deque.getFirst();
+        } finally {
+            record(Operation.PEEK, start);
+        }
+    }
+
+    @Override
+    public E getLast() {
+        long start = start();
+        try {
+            return deque.getLast();
+        } finally {
+            record(Operation.PEEK, start);
+        }
+    }
+
+    @Override
+    public E peekFirst() {
+        long start = start();
+        try {
+            return deque.peekFirst();
+        } finally {
+            record(Operation.PEEK, start);
+        }
+    }
+
+    @Override
+    public E peekLast() {
+        long start = start();
+        try {
+            return deque.peekLast();
+        } finally {
+            record(Operation.PEEK, start);
+        }
+    }
+
+    @Override
+    public E element() {
+        long start = start();
+        try {
+            return deque.element();
+        } finally {
+            record(Operation.PEEK, start);
+        }
+    }
+
+    @Override
+    public E peek() {
+        long start = start();
+        try {
+            return deque.peek();
+        } finally {
+            record(Operation.PEEK, start);
+        }
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        long start = start();
+        boolean removed;
+        try {
+            removed = deque.removeFirstOccurrence(o);
+        } finally {
+            record(Operation.REMOVE_OTHER, start);
+        }
+        if (removed)
+            recordRemoval();
+        return removed;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        long start = start();
+        boolean removed;
+        try {
+            removed = deque.removeLastOccurrence(o);
+        } finally {
+            record(Operation.REMOVE_OTHER, start);
+        }
+        if (removed)
+            recordRemoval();
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        long start = start();
+        boolean removed;
+        try {
+            removed = deque.remove(o);
+        } finally {
+            record(Operation.REMOVE_OTHER, start);
+        }
+        if (removed)
+            recordRemoval();
+        return removed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        long start = start();
+        boolean removed;
+        try {
+            removed = deque.removeAll(c);
+        } finally {
+            record(Operation.REMOVE_OTHER, start);
+        }
+        if (removed)
+            resyncSize();
+        return removed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        long start = start();
+        boolean removed;
+        try {
+            removed = deque.retainAll(c);
+        } finally {
+            record(Operation.REMOVE_OTHER, start);
+        }
+        if (removed)
+            resyncSize();
+        return removed;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        long start = start();
+        boolean removed;
+        try {
+            removed = deque.removeIf(filter);
+        } finally {
+            record(Operation.REMOVE_OTHER, start);
+        }
+        if (removed)
+            resyncSize();
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        long start = start();
+        try {
+            deque.clear();
+        } finally {
+            record(Operation.REMOVE_OTHER, start);
+        }
+        resyncSize();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        long start = start();
+        try {
+            return deque.contains(o);
+        } finally {
+            record(Operation.CONTAINS, start);
+        }
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        long start = start();
+        try {
+            return deque.containsAll(c);
+        } finally {
+            record(Operation.CONTAINS, start);
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        long start = start();
+        try {
+            return deque.toArray();
+        } finally {
+            record(Operation.ITERATE, start);
+        }
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        long start = start();
+        try {
+            return deque.toArray(a);
+        } finally {
+            record(Operation.ITERATE, start);
+        }
+    }
+
+    @Override
+    public int size() {
+        return deque.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return deque.isEmpty();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        record(Operation.ITERATE, start());
+        return new CountingItr(deque.iterator());
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        record(Operation.ITERATE, start());
+        return new CountingItr(deque.descendingIterator());
+    }
+
+    /*
+     * Iterator of the decorated deque that counts the
+     * <code>ConcurrentModificationException</code> it launches.
+     */
+    private class CountingItr implements Iterator<E> {
+
+        private final Iterator<E> it;
+
+        CountingItr(Iterator<E> it) {
+            this.it = it;
+        }
+
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        public E next() {
+            try {
+                return it.next();
+            } catch (ConcurrentModificationException e) {
+                concurrentModifications.increment();
+                throw e;
+            }
+        }
+
+        public void remove() {
+            it.remove();
+            recordRemoval();
+        }
+    }
+}
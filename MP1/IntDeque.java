@@ -0,0 +1,202 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Double-ended queue of primitive <code>int</code> values based on a growable
+ * circular array. Differently from an <code>ASDL2021Deque&lt;Integer&gt;</code>
+ * the values are not boxed and no node is allocated for each of them: memory
+ * is allocated only when the array has to be doubled. The methods
+ * <code>push</code>, <code>pop</code> and <code>peek</code> operate on the
+ * head of the deque, so that it can be used as a stack.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class IntDeque {
+
+    /*
+     * Initial capacity of the circular array, it must be a power of two
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /*
+     * Circular array containing the values, its length is a power of two
+     */
+    private int[] elements;
+
+    /*
+     * Index of the first value in the circular array
+     */
+    private int head;
+
+    /*
+     * Current number of values in this deque
+     */
+    private int size;
+
+    /**
+     * Constructs an empty deque.
+     */
+    public IntDeque() {
+        this.elements = new int[INITIAL_CAPACITY];
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * @return the number of values in this deque
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if this deque contains no values, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the values from this deque. The underlying array is kept,
+     * so that it can be reused without new allocations.
+     */
+    public void clear() {
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Inserts a value at the head of this deque.
+     *
+     * @param value
+     *                  the value to insert
+     */
+    public void addFirst(int value) {
+        grow();
+        head = (head - 1) & (elements.length - 1);
+        elements[head] = value;
+        size++;
+    }
+
+    /**
+     * Inserts a value at the tail of this deque.
+     *
+     * @param value
+     *                  the value to insert
+     */
+    public void addLast(int value) {
+        grow();
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * Removes and returns the value at the head of this deque.
+     *
+     * @return the value at the head of this deque
+     * @throws NoSuchElementException
+     *                                    if this deque is empty
+     */
+    public int removeFirst() {
+        if (size == 0)
+            throw new NoSuchElementException("the deque is empty.");
+        int value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    /**
+     * Removes and returns the value at the tail of this deque.
+     *
+     * @return the value at the tail of this deque
+     * @throws NoSuchElementException
+     *                                    if this deque is empty
+     */
+    public int removeLast() {
+        if (size == 0)
+            throw new NoSuchElementException("the deque is empty.");
+        size--;
+        return elements[(head + size) & (elements.length - 1)];
+    }
+
+    /**
+     * Returns, without removing it, the value at the head of this deque.
+     *
+     * @return the value at the head of this deque
+     * @throws NoSuchElementException
+     *                                    if this deque is empty
+     */
+    public int getFirst() {
+        if (size == 0)
+            throw new NoSuchElementException("the deque is empty.");
+        return elements[head];
+    }
+
+    /**
+     * Returns, without removing it, the value at the tail of this deque.
+     *
+     * @return the value at the tail of this deque
+     * @throws NoSuchElementException
+     *                                    if this deque is empty
+     */
+    public int getLast() {
+        if (size == 0)
+            throw new NoSuchElementException("the deque is empty.");
+        return elements[(head + size - 1) & (elements.length - 1)];
+    }
+
+    /**
+     * Pushes a value onto the stack represented by this deque, i.e., inserts
+     * it at the head.
+     *
+     * @param value
+     *                  the value to push
+     */
+    public void push(int value) {
+        this.addFirst(value);
+    }
+
+    /**
+     * Pops a value from the stack represented by this deque, i.e., removes and
+     * returns the value at the head.
+     *
+     * @return the value at the head of this deque
+     * @throws NoSuchElementException
+     *                                    if this deque is empty
+     */
+    public int pop() {
+        return this.removeFirst();
+    }
+
+    /**
+     * Returns, without removing it, the value at the top of the stack
+     * represented by this deque, i.e., the value at the head.
+     *
+     * @return the value at the head of this deque
+     * @throws NoSuchElementException
+     *                                    if this deque is empty
+     */
+    public int peek() {
+        return this.getFirst();
+    }
+
+    /*
+     * Doubles the circular array if it is full, moving the head at position 0.
+     */
+    private void grow() {
+        if (size < elements.length)
+            return;
+        int[] newElements = new int[elements.length << 1];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, newElements, 0, firstPart);
+        System.arraycopy(elements, 0, newElements, firstPart, head);
+        this.elements = newElements;
+        this.head = 0;
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Minimum and maximum of a stream of primitive <code>long</code> values in
+ * a sliding window of time. It works as a
+ * <code>SlidingWindowMinMax&lt;Long&gt;</code>, but the two monotonic deques
+ * are kept in circular arrays of primitive values, so no object is allocated
+ * for each value and memory is allocated only when an array has to be
+ * doubled. <code>push</code> and <code>evictOlderThan</code> take O(1)
+ * amortized time and <code>min</code> and <code>max</code> O(1) time.
+ *
+ * The timestamps must be inserted in non-decreasing order.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class LongSlidingWindowMinMax {
+
+    /*
+     * Candidates to the minimum, increasing from the head
+     */
+    private final MonotonicDeque minDeque;
+
+    /*
+     * Candidates to the maximum, decreasing from the head
+     */
+    private final MonotonicDeque maxDeque;
+
+    /*
+     * Timestamp of the last inserted value
+     */
+    private long lastTimestamp;
+
+    /**
+     * Constructs an empty window.
+     */
+    public LongSlidingWindowMinMax() {
+        this.minDeque = new MonotonicDeque();
+        this.maxDeque = new MonotonicDeque();
+        this.lastTimestamp = Long.MIN_VALUE;
+    }
+
+    /**
+     * @return true if the window contains no values, false otherwise
+     */
+    public boolean isEmpty() {
+        //l'ultimo valore inserito è sempre in entrambe le code.
+        return minDeque.size == 0;
+    }
+
+    /**
+     * Inserts a value in the window.
+     *
+     * @param timestamp
+     *                      the instant of the value, not lower than the one of
+     *                      the previous value
+     * @param value
+     *                      the value to insert
+     * @throws IllegalArgumentException
+     *                                      if timestamp is lower than the
+     *                                      timestamp of the previous value
+     */
+    public void push(long timestamp, long value) {
+        if (timestamp < lastTimestamp)
+            throw new IllegalArgumentException(
+                    "the timestamps must be in non-decreasing order.");
+        lastTimestamp = timestamp;
+        //i valori maggiori del nuovo non possono più essere il minimo.
+        while (minDeque.size > 0 && minDeque.lastValue() > value)
+            minDeque.size--;
+        minDeque.addLast(timestamp, value);
+        //i valori minori del nuovo non possono più essere il massimo.
+        while (maxDeque.size > 0 && maxDeque.lastValue() < value)
+            maxDeque.size--;
+        maxDeque.addLast(timestamp, value);
+    }
+
+    /**
+     * Removes from the window all the values whose timestamp is lower than the
+     * given one.
+     *
+     * @param timestamp
+     *                      the beginning of the window
+     */
+    public void evictOlderThan(long timestamp) {
+        minDeque.evictOlderThan(timestamp);
+        maxDeque.evictOlderThan(timestamp);
+    }
+
+    /**
+     * @return the minimum value in the window
+     * @throws NoSuchElementException
+     *                                    if the window is empty
+     */
+    public long min() {
+        if (minDeque.size == 0)
+            throw new NoSuchElementException("the window is empty.");
+        return minDeque.values[minDeque.head];
+    }
+
+    /**
+     * @return the maximum value in the window
+     * @throws NoSuchElementException
+     *                                    if the window is empty
+     */
+    public long max() {
+        if (maxDeque.size == 0)
+            throw new NoSuchElementException("the window is empty.");
+        return maxDeque.values[maxDeque.head];
+    }
+
+    /**
+     * Removes all the values from the window. The following timestamps can be
+     * lower than the ones already inserted.
+     */
+    public void clear() {
+        minDeque.head = minDeque.size = 0;
+        maxDeque.head = maxDeque.size = 0;
+        lastTimestamp = Long.MIN_VALUE;
+    }
+
+    /*
+     * Deque of pairs timestamp-value in two parallel circular arrays whose
+     * length is a power of two.
+     */
+    private static final class MonotonicDeque {
+
+        private long[] timestamps = new long[16];
+
+        private long[] values = new long[16];
+
+        private int head;
+
+        private int size;
+
+        long lastValue() {
+            return values[(head + size - 1) & (values.length - 1)];
+        }
+
+        void addLast(long timestamp, long value) {
+            if (size == values.length)
+                grow();
+            int i = (head + size) & (values.length - 1);
+            timestamps[i] = timestamp;
+            values[i] = value;
+            size++;
+        }
+
+        void evictOlderThan(long timestamp) {
+            while (size > 0 && timestamps[head] < timestamp) {
+                head = (head + 1) & (values.length - 1);
+                size--;
+            }
+        }
+
+        /*
+         * Doubles the arrays, moving the pairs at the beginning.
+         */
+        private void grow() {
+            long[] newTimestamps = new long[timestamps.length << 1];
+            long[] newValues = new long[values.length << 1];
+            int r = values.length - head;
+            System.arraycopy(timestamps, head, newTimestamps, 0, r);
+            System.arraycopy(timestamps, 0, newTimestamps, r, head);
+            System.arraycopy(values, head, newValues, 0, r);
+            System.arraycopy(values, 0, newValues, r, head);
+            timestamps = newTimestamps;
+            values = newValues;
+            head = 0;
+        }
+    }
+}
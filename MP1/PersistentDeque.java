@@ -0,0 +1,387 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Persistent (immutable) double-ended queue. The operations that would modify
+ * the deque return instead a new version of it, sharing most of its structure
+ * with the old one, which remains valid and unchanged. An object of this class
+ * can therefore be read by any number of threads without synchronization and
+ * without copying it.
+ *
+ * The implementation is the <i>banker's deque</i> of C. Okasaki ("Purely
+ * Functional Data Structures", 1998): the elements are kept in a front list
+ * and in a reversed rear list, and when one of the two lists becomes more
+ * than <code>C</code> times longer than the other the lists are rebalanced.
+ * The lists are lazy and memoized, so the cost of the rebalancing is paid
+ * incrementally by the following operations and insertions and removals at
+ * both ends take O(1) amortized time even when old versions are reused.
+ * <code>null</code> elements are not permitted.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public final class PersistentDeque<E> implements Iterable<E> {
+
+    /*
+     * Maximum ratio between the lengths of the two lists
+     */
+    private static final int C = 3;
+
+    private static final PersistentDeque<Object> EMPTY = new PersistentDeque<Object>(
+            0, Stream.empty(), 0, Stream.empty());
+
+    /*
+     * Front list and its length
+     */
+    private final int frontSize;
+
+    private final Stream<E> front;
+
+    /*
+     * Rear list, in reverse order, and its length
+     */
+    private final int rearSize;
+
+    private final Stream<E> rear;
+
+    private PersistentDeque(int frontSize, Stream<E> front, int rearSize,
+            Stream<E> rear) {
+        this.frontSize = frontSize;
+        this.front = front;
+        this.rearSize = rearSize;
+        this.rear = rear;
+    }
+
+    /**
+     * Returns the empty deque.
+     *
+     * @param <E>
+     *                the type of the elements
+     * @return the empty deque
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentDeque<E> empty() {
+        return (PersistentDeque<E>) EMPTY;
+    }
+
+    /**
+     * @return the number of elements in this deque
+     */
+    public int size() {
+        return frontSize + rearSize;
+    }
+
+    /**
+     * @return true if this deque contains no elements, false otherwise
+     */
+    public boolean isEmpty() {
+        return frontSize + rearSize == 0;
+    }
+
+    /**
+     * Returns a new deque with the given element inserted at the head.
+     *
+     * @param e
+     *              the element to insert
+     * @return the new version of the deque
+     * @throws NullPointerException
+     *                                  if the element is null
+     */
+    public PersistentDeque<E> pushFirst(E e) {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        return check(frontSize + 1, Stream.cons(e, front), rearSize, rear);
+    }
+
+    /**
+     * Returns a new deque with the given element inserted at the tail.
+     *
+     * @param e
+     *              the element to insert
+     * @return the new version of the deque
+     * @throws NullPointerException
+     *                                  if the element is null
+     */
+    public PersistentDeque<E> pushLast(E e) {
+        if (e == null)
+            throw new NullPointerException("this element is null.");
+        return check(frontSize, front, rearSize + 1, Stream.cons(e, rear));
+    }
+
+    /**
+     * @return the element at the head of this deque
+     * @throws NoSuchElementException
+     *                                    if this deque is empty
+     */
+    public E first() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("the deque is empty.");
+        //per l'invariante, se la lista davanti è vuota quella dietro ha un solo elemento.
+        return frontSize == 0 ? rear.force().head : front.force().head;
+    }
+
+    /**
+     * @return the element at the tail of this deque
+     * @throws NoSuchElementException
+     *                                    if this deque is empty
+     */
+    public E last() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("the deque is empty.");
+        return rearSize == 0 ? front.force().head : rear.force().head;
+    }
+
+    /**
+     * Returns a new deque without the element at the head of this deque.
+     *
+     * @return the new version of the deque
+     * @throws NoSuchElementException
+     *                                    if this deque is empty
+     */
+    public PersistentDeque<E> popFirst() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("the deque is empty.");
+        if (frontSize == 0)
+            return empty();
+        return check(frontSize - 1, front.force().tail, rearSize, rear);
+    }
+
+    /**
+     * Returns a new deque without the element at the tail of this deque.
+     *
+     * @return the new version of the deque
+     * @throws NoSuchElementException
+     *                                    if this deque is empty
+     */
+    public PersistentDeque<E> popLast() {
+        if (this.isEmpty())
+            throw new NoSuchElementException("the deque is empty.");
+        if (rearSize == 0)
+            return empty();
+        return check(frontSize, front, rearSize - 1, rear.force().tail);
+    }
+
+    /*
+     * Builds a deque rebalancing the two lists if one is more than C times
+     * longer than the other. The rebalanced lists are lazy, so this method
+     * takes constant time.
+     */
+    private static <E> PersistentDeque<E> check(int frontSize, Stream<E> front,
+            int rearSize, Stream<E> rear) {
+        int n = frontSize + rearSize;
+        //caso 1 - la lista davanti è troppo lunga: sposto la sua seconda metà dietro.
+        if (frontSize > C * rearSize + 1) {
+            int i = n / 2;
+            return new PersistentDeque<E>(i, Stream.take(i, front), n - i,
+                    Stream.append(rear, Stream.reverse(Stream.drop(i, front))));
+        }
+        //caso 2 - la lista dietro è troppo lunga: sposto la sua seconda metà davanti.
+        if (rearSize > C * frontSize + 1) {
+            int j = n / 2;
+            return new PersistentDeque<E>(n - j,
+                    Stream.append(front, Stream.reverse(Stream.drop(j, rear))),
+                    j, Stream.take(j, rear));
+        }
+        return new PersistentDeque<E>(frontSize, front, rearSize, rear);
+    }
+
+    /**
+     * Returns an iterator over the elements of this deque, from the head to
+     * the tail.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr<E>(front, rear);
+    }
+
+    /**
+     * @return an iterator over the elements of this deque, from the tail to
+     *         the head
+     */
+    public Iterator<E> descendingIterator() {
+        return new Itr<E>(rear, front);
+    }
+
+    /*
+     * Iterator that visits a list and then another list in reverse order. The
+     * second list is copied when the first one is finished.
+     */
+    private static class Itr<E> implements Iterator<E> {
+
+        //cella corrente della prima lista
+        private Cell<E> cell;
+        //seconda lista, null quando è già stata copiata
+        private Stream<E> second;
+        //elementi della seconda lista, in ordine inverso
+        private ArrayList<E> reversed;
+
+        Itr(Stream<E> first, Stream<E> second) {
+            this.cell = first.force();
+            this.second = second;
+            this.reversed = null;
+        }
+
+        public boolean hasNext() {
+            if (cell != Cell.EMPTY)
+                return true;
+            //la prima lista è finita: copio la seconda.
+            if (second != null) {
+                reversed = new ArrayList<E>();
+                for (Cell<E> c = second.force(); c != Cell.EMPTY; c = c.tail.force())
+                    reversed.add(c.head);
+                second = null;
+            }
+            return !reversed.isEmpty();
+        }
+
+        public E next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException("the list has no more elements");
+            if (cell != Cell.EMPTY) {
+                E item = cell.head;
+                cell = cell.tail.force();
+                return item;
+            }
+            return reversed.remove(reversed.size() - 1);
+        }
+    }
+
+    /*
+     * Cell of a lazy list: an element followed by the rest of the list.
+     */
+    private static final class Cell<E> {
+
+        private static final Cell<Object> EMPTY = new Cell<Object>(null, null);
+
+        private final E head;
+
+        private final Stream<E> tail;
+
+        private Cell(E head, Stream<E> tail) {
+            this.head = head;
+            this.tail = tail;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <E> Cell<E> empty() {
+            return (Cell<E>) EMPTY;
+        }
+    }
+
+    /*
+     * Lazy list: its first cell is computed the first time it is needed and
+     * then memoized. Different threads may compute the same cell at the same
+     * time, but they compute equal values and only one of them is kept.
+     */
+    private static final class Stream<E> {
+
+        private static final Stream<Object> EMPTY_STREAM = new Stream<Object>(Cell.EMPTY);
+
+        private volatile Cell<E> cell;
+
+        private volatile Supplier<Cell<E>> thunk;
+
+        private Stream(Cell<E> cell) {
+            this.cell = cell;
+            this.thunk = null;
+        }
+
+        private Stream(Supplier<Cell<E>> thunk) {
+            this.cell = null;
+            this.thunk = thunk;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <E> Stream<E> empty() {
+            return (Stream<E>) EMPTY_STREAM;
+        }
+
+        static <E> Stream<E> cons(E head, Stream<E> tail) {
+            return new Stream<E>(new Cell<E>(head, tail));
+        }
+
+        static <E> Stream<E> lazy(Supplier<Cell<E>> thunk) {
+            return new Stream<E>(thunk);
+        }
+
+        /*
+         * Returns the first cell, computing it if needed.
+         */
+        Cell<E> force() {
+            Cell<E> c = cell;
+            if (c != null)
+                return c;
+            Supplier<Cell<E>> t = thunk;
+            //un altro thread ha appena finito il calcolo.
+            if (t == null)
+                return cell;
+            c = t.get();
+            cell = c;
+            //rilascio la sospensione per il garbage collector.
+            thunk = null;
+            return c;
+        }
+
+        /*
+         * The first n elements of s, computed one at a time.
+         */
+        static <E> Stream<E> take(int n, Stream<E> s) {
+            if (n == 0)
+                return empty();
+            return lazy(() -> {
+                Cell<E> c = s.force();
+                if (c == Cell.EMPTY)
+                    return c;
+                return new Cell<E>(c.head, take(n - 1, c.tail));
+            });
+        }
+
+        /*
+         * The elements of s following the first n, computed all at once.
+         */
+        static <E> Stream<E> drop(int n, Stream<E> s) {
+            return lazy(() -> {
+                Stream<E> rest = s;
+                for (int i = 0; i < n; i++) {
+                    Cell<E> c = rest.force();
+                    if (c == Cell.EMPTY)
+                        return c;
+                    rest = c.tail;
+                }
+                return rest.force();
+            });
+        }
+
+        /*
+         * The elements of s followed by the elements of t, computed one at a
+         * time.
+         */
+        static <E> Stream<E> append(Stream<E> s, Stream<E> t) {
+            return lazy(() -> {
+                Cell<E> c = s.force();
+                if (c == Cell.EMPTY)
+                    return t.force();
+                return new Cell<E>(c.head, append(c.tail, t));
+            });
+        }
+
+        /*
+         * The elements of s in reverse order, computed all at once.
+         */
+        static <E> Stream<E> reverse(Stream<E> s) {
+            return lazy(() -> {
+                Cell<E> reversed = Cell.empty();
+                for (Cell<E> c = s.force(); c != Cell.EMPTY; c = c.tail.force())
+                    reversed = new Cell<E>(c.head, new Stream<E>(reversed));
+                return reversed;
+            });
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package it.unicam.cs.asdl2021.mp1;
 
+import java.util.Collection;
+
 /**
  * Una semplice classe che fa lo scheduling di jobs utilizzando una coda di
  * min-priorità realizzata dalla classe TernaryHeapMinPriorityQueue. La priorità
  * dei job è la loro scadenza. La scadenza di un job può essere anticipata
  * dinamicamente, che corrisponde a dire che la sua priorità nella coda può
- * essere decrementata.
+ * essere decrementata, oppure posticipata, cioè incrementata. Un job può anche
+ * essere cancellato prima della sua esecuzione.
  * 
  * @author Luca Tesei
  *
@@ -33,6 +36,18 @@ public class Scheduler {
         this.queue.insert(j);
     }
 
+    /**
+     * Inserisce nello scheduler tutti i job passati, costruendo la coda in
+     * tempo lineare invece di inserirli uno alla volta. I job devono avere una
+     * deadline già fissata.
+     * 
+     * @param jobs
+     *                 i nuovi job da inserire
+     */
+    public void scheduleAll(Collection<? extends Job> jobs) {
+        this.queue.insertAll(jobs);
+    }
+
     /**
      * Estrae il prossimo job da eseguire, cioè quello con scadenza più
      * ravvicinata.
@@ -60,4 +75,34 @@ public class Scheduler {
         this.queue.decreasePriority(j, j.getPriority() - amount);
     }
 
+    /**
+     * Posticipa un certo job di un certo tempo specificato.
+     * 
+     * @param j
+     *                   il job da posticipare
+     * @param amount
+     *                   la quantità di tempo da posticipare
+     * @throws IllegalArgumentException
+     *                                      se amount è <= 0
+     */
+    public void postponeJob(Job j, double amount) {
+        if (amount <= 0)
+            throw new IllegalArgumentException(
+                    "Posticipo di un job di un tempo non positivo");
+        this.queue.increasePriority(j, j.getPriority() + amount);
+    }
+
+    /**
+     * Cancella un job dallo scheduler senza eseguirlo.
+     * 
+     * @param j
+     *              il job da cancellare
+     * @throws java.util.NoSuchElementException
+     *                                              se il job non è presente
+     *                                              nello scheduler
+     */
+    public void cancelJob(Job j) {
+        this.queue.delete(j);
+    }
+
 }
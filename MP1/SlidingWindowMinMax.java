@@ -0,0 +1,184 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * Minimum and maximum of the values of a stream in a sliding window of time.
+ * Each value is inserted with a timestamp, and the values older than a given
+ * instant are evicted from the window with <code>evictOlderThan</code>.
+ *
+ * The window is represented by two monotonic deques: the first one contains
+ * only the values that can still become the minimum of the window, in
+ * increasing order from the head, the second one only the values that can
+ * still become the maximum, in decreasing order. A new value removes from the
+ * tail of each deque the values that it makes useless, the eviction removes
+ * the old values from the head, and the minimum and the maximum are at the
+ * head of the deques. Every value is inserted and removed at most once in
+ * each deque, so <code>push</code> and <code>evictOlderThan</code> take O(1)
+ * amortized time and <code>min</code> and <code>max</code> O(1) time, instead
+ * of O(w) for a scan of a window of w values.
+ *
+ * The timestamps must be inserted in non-decreasing order. <code>null</code>
+ * values are not permitted. For primitive values the classes
+ * <code>DoubleSlidingWindowMinMax</code> and
+ * <code>LongSlidingWindowMinMax</code> avoid boxing.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class SlidingWindowMinMax<E> {
+
+    /*
+     * Candidates to the minimum, increasing from the head
+     */
+    private final ASDL2021ArrayDeque<Entry<E>> minDeque;
+
+    /*
+     * Candidates to the maximum, decreasing from the head
+     */
+    private final ASDL2021ArrayDeque<Entry<E>> maxDeque;
+
+    /*
+     * Order of the values
+     */
+    private final Comparator<? super E> comparator;
+
+    /*
+     * Timestamp of the last inserted value
+     */
+    private long lastTimestamp;
+
+    /**
+     * Constructs an empty window whose values are compared with their natural
+     * order.
+     */
+    @SuppressWarnings("unchecked")
+    public SlidingWindowMinMax() {
+        this((a, b) -> ((Comparable<? super E>) a).compareTo(b));
+    }
+
+    /**
+     * Constructs an empty window whose values are compared with the given
+     * comparator.
+     *
+     * @param comparator
+     *                       the order of the values
+     * @throws NullPointerException
+     *                                  if comparator is null
+     */
+    public SlidingWindowMinMax(Comparator<? super E> comparator) {
+        if (comparator == null)
+            throw new NullPointerException("the comparator is null.");
+        this.minDeque = new ASDL2021ArrayDeque<Entry<E>>(16);
+        this.maxDeque = new ASDL2021ArrayDeque<Entry<E>>(16);
+        this.comparator = comparator;
+        this.lastTimestamp = Long.MIN_VALUE;
+    }
+
+    /**
+     * @return true if the window contains no values, false otherwise
+     */
+    public boolean isEmpty() {
+        //l'ultimo valore inserito è sempre in entrambe le code.
+        return minDeque.isEmpty();
+    }
+
+    /**
+     * Inserts a value in the window.
+     *
+     * @param timestamp
+     *                      the instant of the value, not lower than the one of
+     *                      the previous value
+     * @param value
+     *                      the value to insert
+     * @throws NullPointerException
+     *                                      if the value is null
+     * @throws IllegalArgumentException
+     *                                      if timestamp is lower than the
+     *                                      timestamp of the previous value
+     */
+    public void push(long timestamp, E value) {
+        if (value == null)
+            throw new NullPointerException("the element is null.");
+        if (timestamp < lastTimestamp)
+            throw new IllegalArgumentException(
+                    "the timestamps must be in non-decreasing order.");
+        lastTimestamp = timestamp;
+        Entry<E> entry = new Entry<E>(timestamp, value);
+        //i valori maggiori del nuovo non possono più essere il minimo.
+        while (!minDeque.isEmpty()
+                && comparator.compare(minDeque.peekLast().value, value) > 0)
+            minDeque.removeLast();
+        minDeque.addLast(entry);
+        //i valori minori del nuovo non possono più essere il massimo.
+        while (!maxDeque.isEmpty()
+                && comparator.compare(maxDeque.peekLast().value, value) < 0)
+            maxDeque.removeLast();
+        maxDeque.addLast(entry);
+    }
+
+    /**
+     * Removes from the window all the values whose timestamp is lower than the
+     * given one.
+     *
+     * @param timestamp
+     *                      the beginning of the window
+     */
+    public void evictOlderThan(long timestamp) {
+        while (!minDeque.isEmpty() && minDeque.peekFirst().timestamp < timestamp)
+            minDeque.removeFirst();
+        while (!maxDeque.isEmpty() && maxDeque.peekFirst().timestamp < timestamp)
+            maxDeque.removeFirst();
+    }
+
+    /**
+     * @return the minimum value in the window
+     * @throws NoSuchElementException
+     *                                    if the window is empty
+     */
+    public E min() {
+        if (minDeque.isEmpty())
+            throw new NoSuchElementException("the window is empty.");
+        return minDeque.peekFirst().value;
+    }
+
+    /**
+     * @return the maximum value in the window
+     * @throws NoSuchElementException
+     *                                    if the window is empty
+     */
+    public E max() {
+        if (maxDeque.isEmpty())
+            throw new NoSuchElementException("the window is empty.");
+        return maxDeque.peekFirst().value;
+    }
+
+    /**
+     * Removes all the values from the window. The following timestamps can be
+     * lower than the ones already inserted.
+     */
+    public void clear() {
+        minDeque.clear();
+        maxDeque.clear();
+        lastTimestamp = Long.MIN_VALUE;
+    }
+
+    /*
+     * Value of the window with its timestamp.
+     */
+    private static final class Entry<E> {
+
+        private final long timestamp;
+
+        private final E value;
+
+        private Entry(long timestamp, E value) {
+            this.timestamp = timestamp;
+            this.value = value;
+        }
+    }
+}
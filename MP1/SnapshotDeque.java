@@ -0,0 +1,309 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the Java SE Double-ended Queue (Deque) interface
+ * (<code>java.util.Deque</code>) whose state is a <code>PersistentDeque</code>.
+ * Each modification replaces the current version with a new one, so the
+ * method <code>snapshot()</code> returns in constant time an immutable and
+ * consistent copy of the deque, that can be read by other threads while the
+ * deque is modified. For the same reason the iterators never launch a
+ * <code>ConcurrentModificationException</code>: they visit the version of the
+ * deque present at the moment of their creation.
+ *
+ * The modifications are not synchronized: if more threads modify the deque
+ * they must be synchronized externally, while <code>snapshot()</code> and the
+ * iterators can be used by any thread at any time. Duplicated elements are
+ * permitted while <code>null</code> elements are not permitted. The removals
+ * of internal elements rebuild the deque and take linear time.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class SnapshotDeque<E> implements Deque<E> {
+
+    /*
+     * Current version of this deque
+     */
+    private volatile PersistentDeque<E> current;
+
+    /**
+     * Constructs an empty deque.
+     */
+    public SnapshotDeque() {
+        this.current = PersistentDeque.empty();
+    }
+
+    /**
+     * Returns the current version of this deque. The returned object is
+     * immutable and is not affected by the following modifications of this
+     * deque.
+     *
+     * @return the current version of this deque
+     */
+    public PersistentDeque<E> snapshot() {
+        return current;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return current.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return current.size();
+    }
+
+    @Override
+    public void addFirst(E e) {
+        current = current.pushFirst(e);
+    }
+
+    @Override
+    public void addLast(E e) {
+        current = current.pushLast(e);
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        this.addFirst(e);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        this.addLast(e);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        PersistentDeque<E> d = current;
+        E item = d.first();
+        current = d.popFirst();
+        return item;
+    }
+
+    @Override
+    public E removeLast() {
+        PersistentDeque<E> d = current;
+        E item = d.last();
+        current = d.popLast();
+        return item;
+    }
+
+    @Override
+    public E pollFirst() {
+        return this.isEmpty() ? null : this.removeFirst();
+    }
+
+    @Override
+    public E pollLast() {
+        return this.isEmpty() ? null : this.removeLast();
+    }
+
+    @Override
+    public E getFirst() {
+        return current.first();
+    }
+
+    @Override
+    public E getLast() {
+        return current.last();
+    }
+
+    @Override
+    public E peekFirst() {
+        PersistentDeque<E> d = current;
+        return d.isEmpty() ? null : d.first();
+    }
+
+    @Override
+    public E peekLast() {
+        PersistentDeque<E> d = current;
+        return d.isEmpty() ? null : d.last();
+    }
+
+    @Override
+    public boolean add(E e) {
+        this.addLast(e);
+        return true;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return this.offerLast(e);
+    }
+
+    @Override
+    public E remove() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return this.getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(E e) {
+        this.addFirst(e);
+    }
+
+    @Override
+    public E pop() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        PersistentDeque<E> d = current;
+        for (E o : c)
+            d = d.pushLast(o);
+        //pubblico la nuova versione una sola volta.
+        current = d;
+        return !c.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        current = PersistentDeque.empty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null.");
+        for (E item : current)
+            if (o.equals(item))
+                return true;
+        return false;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object o : c)
+            if (!this.contains(o))
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null");
+        return rebuild(current.iterator(), o, false);
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null");
+        return rebuild(current.descendingIterator(), o, true);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return this.removeFirstOccurrence(o);
+    }
+
+    /*
+     * Rebuilds the deque without the first element equal to o met by the
+     * given iterator. If descending is true the iterator visits the deque
+     * from the tail.
+     */
+    private boolean rebuild(Iterator<E> it, Object o, boolean descending) {
+        PersistentDeque<E> d = PersistentDeque.empty();
+        boolean removed = false;
+        while (it.hasNext()) {
+            E item = it.next();
+            if (!removed && o.equals(item))
+                removed = true;
+            else
+                d = descending ? d.pushFirst(item) : d.pushLast(item);
+        }
+        if (removed)
+            current = d;
+        return removed;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        if (filter == null)
+            throw new NullPointerException("the filter is null.");
+        PersistentDeque<E> d = PersistentDeque.empty();
+        boolean removed = false;
+        for (E item : current)
+            if (filter.test(item))
+                removed = true;
+            else
+                d = d.pushLast(item);
+        if (removed)
+            current = d;
+        return removed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("the collection is null.");
+        return this.removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        if (c == null)
+            throw new NullPointerException("the collection is null.");
+        return this.removeIf(item -> !c.contains(item));
+    }
+
+    @Override
+    public Object[] toArray() {
+        return copy().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return copy().toArray(a);
+    }
+
+    /*
+     * Copies the elements of the current version in a list.
+     */
+    private ArrayList<E> copy() {
+        PersistentDeque<E> d = current;
+        ArrayList<E> list = new ArrayList<E>(d.size());
+        for (E item : d)
+            list.add(item);
+        return list;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return current.iterator();
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return current.descendingIterator();
+    }
+}
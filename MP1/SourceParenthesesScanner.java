@@ -0,0 +1,524 @@
+package it.unicam.cs.asdl2021.mp1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An object of this class checks that the parentheses of a source file are
+ * balanced, ignoring the parentheses that are inside comments and string
+ * literals. Differently from <code>BalancedParenthesesChecker</code> any other
+ * character is permitted and ignored.
+ *
+ * The scanner is a finite-state machine with the states code, line comment,
+ * block comment, string and escape inside a string. The comment delimiters,
+ * the quote characters, the escape character and the pairs of parentheses are
+ * configurable; for each state a table tells in a single lookup if a byte can
+ * change the state, so the bytes inside comments and strings are skipped
+ * without other comparisons. The input is read as bytes in a single pass
+ * without building strings, so it can be a file mapped in memory; it must be
+ * in an encoding compatible with ASCII, such as UTF-8, and the columns are
+ * counted in characters.
+ *
+ * The result tells the line and the column of the first error: a closed
+ * parenthesis without an open one, a closed parenthesis of a type different
+ * from the last open one, a comment or a string not terminated, or, at the end
+ * of the input, the innermost open parenthesis not closed. An object of this
+ * class is immutable and can be used by more threads at the same time.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class SourceParenthesesScanner {
+
+    // Size of the buffers used to read the channels
+    private static final int BUFFER_SIZE = 8192;
+
+    // Maximum size of a region of a file mapped in memory at once
+    private static final long MAPPING_SIZE = 1L << 30;
+
+    // States of the machine
+    private static final int CODE = 0, LINE_COMMENT = 1, BLOCK_COMMENT = 2,
+            STRING = 3, ESCAPE = 4;
+
+    // Tokens recognized by the machine
+    private static final int NONE = -1, PREFIX = -2, LINE_START = 0,
+            BLOCK_START = 1, BLOCK_END = 2;
+
+    // Index of the pair of each open and closed parenthesis, -1 for the
+    // other bytes
+    private final byte[] openIndex = new byte[256];
+
+    private final byte[] closeIndex = new byte[256];
+
+    // true for the quote characters
+    private final boolean[] quote = new boolean[256];
+
+    // true, for each state, for the bytes that can begin a delimiter
+    private final boolean[][] delimiterStart = new boolean[3][256];
+
+    // Delimiters of the comments, null if not used
+    private final byte[] lineComment;
+
+    private final byte[] blockCommentStart;
+
+    private final byte[] blockCommentEnd;
+
+    // Escape character inside strings, -1 if not used
+    private final int escape;
+
+    // Length of the longest delimiter
+    private final int maxDelimiter;
+
+    /**
+     * Create a new scanner.
+     *
+     * @param pairs
+     *                              the pairs of parentheses, each open
+     *                              parenthesis followed by the closed one, as
+     *                              in "()[]{}"
+     * @param lineComment
+     *                              the beginning of a comment that ends at the
+     *                              end of the line, or null
+     * @param blockCommentStart
+     *                              the beginning of a comment that ends with
+     *                              blockCommentEnd, or null
+     * @param blockCommentEnd
+     *                              the end of a block comment, or null
+     * @param quotes
+     *                              the characters that begin and end a string
+     *                              literal, or null
+     * @param escape
+     *                              the character that escapes the following
+     *                              one inside a string, or 0 if there is none
+     * @throws IllegalArgumentException
+     *                                      if a character is not ASCII, a
+     *                                      delimiter is empty or contains a
+     *                                      newline, a character has two roles,
+     *                                      one of the comment beginnings is a
+     *                                      prefix of the other or only one of
+     *                                      the block comment delimiters is
+     *                                      given
+     */
+    public SourceParenthesesScanner(String pairs, String lineComment,
+            String blockCommentStart, String blockCommentEnd, String quotes,
+            char escape) {
+        if (pairs == null)
+            throw new NullPointerException("the pairs are null.");
+        if (pairs.length() % 2 != 0 || pairs.length() > 2 * Byte.MAX_VALUE)
+            throw new IllegalArgumentException("the pairs are not valid.");
+        if ((blockCommentStart == null) != (blockCommentEnd == null))
+            throw new IllegalArgumentException("the block comment delimiters are not valid.");
+        Arrays.fill(openIndex, (byte) -1);
+        Arrays.fill(closeIndex, (byte) -1);
+        for (int i = 0; i < pairs.length(); i += 2) {
+            int open = ascii(pairs.charAt(i));
+            int close = ascii(pairs.charAt(i + 1));
+            if (open == close || openIndex[open] != -1 || closeIndex[open] != -1
+                    || openIndex[close] != -1 || closeIndex[close] != -1)
+                throw new IllegalArgumentException("the pairs are not valid.");
+            openIndex[open] = (byte) (i / 2);
+            closeIndex[close] = (byte) (i / 2);
+        }
+        if (quotes != null)
+            for (int i = 0; i < quotes.length(); i++) {
+                int q = ascii(quotes.charAt(i));
+                if (openIndex[q] != -1 || closeIndex[q] != -1 || q == '\n')
+                    throw new IllegalArgumentException("the quotes are not valid.");
+                quote[q] = true;
+            }
+        this.escape = escape == 0 ? -1 : ascii(escape);
+        this.lineComment = delimiter(lineComment);
+        this.blockCommentStart = delimiter(blockCommentStart);
+        this.blockCommentEnd = delimiter(blockCommentEnd);
+        if (this.lineComment != null && this.blockCommentStart != null
+                && (isPrefix(this.lineComment, this.blockCommentStart)
+                        || isPrefix(this.blockCommentStart, this.lineComment)))
+            throw new IllegalArgumentException("the comment delimiters are not valid.");
+        int max = 1;
+        for (byte[] d : new byte[][] { this.lineComment, this.blockCommentStart,
+                this.blockCommentEnd })
+            if (d != null) {
+                max = Math.max(max, d.length);
+                //un delimitatore di commento non può iniziare con un apice.
+                if (quote[d[0]])
+                    throw new IllegalArgumentException("the comment delimiters are not valid.");
+            }
+        this.maxDelimiter = max;
+        if (this.lineComment != null)
+            delimiterStart[CODE][this.lineComment[0]] = true;
+        if (this.blockCommentStart != null) {
+            delimiterStart[CODE][this.blockCommentStart[0]] = true;
+            delimiterStart[BLOCK_COMMENT][this.blockCommentEnd[0]] = true;
+        }
+    }
+
+    /**
+     * Create a scanner for the languages with the syntax of C, such as Java:
+     * parentheses "()[]{}", comments "//" and "/* ... *&#47;", strings and
+     * characters between double and single quotes with the escape character
+     * '\'.
+     *
+     * @return a scanner for the languages with the syntax of C
+     */
+    public static SourceParenthesesScanner cLike() {
+        return new SourceParenthesesScanner("()[]{}", "//", "/*", "*/", "\"'", '\\');
+    }
+
+    /**
+     * Scans the remaining bytes of a buffer. The position of the buffer is not
+     * modified.
+     *
+     * @param buffer
+     *                   the bytes to scan
+     * @return the result of the scan
+     */
+    public Result scan(ByteBuffer buffer) {
+        if (buffer == null)
+            throw new NullPointerException("the buffer is null.");
+        Run run = new Run();
+        run.scan(buffer.duplicate());
+        return run.finish();
+    }
+
+    /**
+     * Scans the bytes read from a channel until its end, or until the first
+     * error. The channel is not closed.
+     *
+     * @param in
+     *               the channel to scan
+     * @return the result of the scan
+     * @throws IOException
+     *                         if an I/O error occurs
+     */
+    public Result scan(ReadableByteChannel in) throws IOException {
+        if (in == null)
+            throw new NullPointerException("the channel is null.");
+        Run run = new Run();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (run.error == null && in.read(buffer) != -1) {
+            buffer.flip();
+            run.scan(buffer);
+            buffer.clear();
+        }
+        return run.finish();
+    }
+
+    /**
+     * Scans a file, mapping it in memory a region at a time.
+     *
+     * @param file
+     *                 the file to scan
+     * @return the result of the scan
+     * @throws IOException
+     *                         if an I/O error occurs
+     */
+    public Result scan(Path file) throws IOException {
+        if (file == null)
+            throw new NullPointerException("the path is null.");
+        Run run = new Run();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            for (long position = 0; position < length
+                    && run.error == null; position += MAPPING_SIZE) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY,
+                        position, Math.min(MAPPING_SIZE, length - position));
+                run.scan(region);
+            }
+        }
+        return run.finish();
+    }
+
+    private static int ascii(char c) {
+        if (c >= 128)
+            throw new IllegalArgumentException("the character is not ASCII.");
+        return c;
+    }
+
+    private static byte[] delimiter(String s) {
+        if (s == null)
+            return null;
+        if (s.isEmpty() || s.indexOf('\n') >= 0)
+            throw new IllegalArgumentException("the delimiter is not valid.");
+        byte[] d = new byte[s.length()];
+        for (int i = 0; i < d.length; i++)
+            d[i] = (byte) ascii(s.charAt(i));
+        return d;
+    }
+
+    private static boolean isPrefix(byte[] prefix, byte[] d) {
+        if (prefix.length > d.length)
+            return false;
+        for (int i = 0; i < prefix.length; i++)
+            if (prefix[i] != d[i])
+                return false;
+        return true;
+    }
+
+    /**
+     * Result of a scan: it tells if the parentheses are balanced and, if not,
+     * the kind and the position of the first error.
+     */
+    public static final class Result {
+
+        /**
+         * Kinds of errors.
+         */
+        public enum Error {
+            /** A closed parenthesis without an open one */
+            UNEXPECTED_CLOSE,
+            /** A closed parenthesis of a type different from the open one */
+            MISMATCHED_CLOSE,
+            /** An open parenthesis not closed at the end of the input */
+            UNCLOSED_OPEN,
+            /** A block comment not terminated at the end of the input */
+            UNTERMINATED_COMMENT,
+            /** A string not terminated at the end of the input */
+            UNTERMINATED_STRING
+        }
+
+        private final Error error;
+
+        private final int line;
+
+        private final int column;
+
+        private Result(Error error, int line, int column) {
+            this.error = error;
+            this.line = line;
+            this.column = column;
+        }
+
+        /**
+         * @return true if the parentheses are balanced, false otherwise
+         */
+        public boolean isBalanced() {
+            return error == null;
+        }
+
+        /**
+         * @return the kind of the first error, or null if the parentheses are
+         *         balanced
+         */
+        public Error getError() {
+            return error;
+        }
+
+        /**
+         * @return the line of the first error, starting from 1, or 0 if the
+         *         parentheses are balanced
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return the column of the first error, starting from 1, or 0 if the
+         *         parentheses are balanced
+         */
+        public int getColumn() {
+            return column;
+        }
+
+        @Override
+        public String toString() {
+            return error == null ? "balanced"
+                    : error + " at line " + line + ", column " + column;
+        }
+    }
+
+    /*
+     * State of a single scan.
+     */
+    private final class Run {
+
+        //stato della macchina
+        private int state = CODE;
+        //apice che ha aperto la stringa corrente
+        private int openQuote;
+        //posizione dell'ultimo byte letto
+        private int line = 1;
+        private int column = 0;
+        //posizione dell'inizio del commento o della stringa corrente
+        private int startLine;
+        private int startColumn;
+        //byte letti che possono essere l'inizio di un delimitatore, con le loro posizioni
+        private final int[] pending = new int[maxDelimiter];
+        private final int[] pendingLines = new int[maxDelimiter];
+        private final int[] pendingColumns = new int[maxDelimiter];
+        private int pendingLength = 0;
+        //indici delle coppie delle parentesi aperte, con le loro posizioni
+        private final IntDeque stack = new IntDeque();
+        private final IntDeque stackLines = new IntDeque();
+        private final IntDeque stackColumns = new IntDeque();
+        //primo errore trovato
+        private Result.Error error;
+        private int errorLine;
+        private int errorColumn;
+
+        /*
+         * Scans the remaining bytes of the buffer, stopping at the first error.
+         */
+        void scan(ByteBuffer buffer) {
+            while (error == null && buffer.hasRemaining()) {
+                int b = buffer.get() & 0xFF;
+                if (b == '\n') {
+                    line++;
+                    column = 0;
+                } else if ((b & 0xC0) != 0x80)
+                    //i byte di continuazione UTF-8 non iniziano un nuovo carattere.
+                    column++;
+                if (pendingLength == 0
+                        && (state > BLOCK_COMMENT || !delimiterStart[state][b]))
+                    this.step(b, line, column);
+                else {
+                    pending[pendingLength] = b;
+                    pendingLines[pendingLength] = line;
+                    pendingColumns[pendingLength] = column;
+                    pendingLength++;
+                    this.resolve(false);
+                }
+            }
+        }
+
+        /*
+         * Matches the pending bytes with the delimiters of the current state:
+         * if they form a delimiter the state changes, if they are a prefix of
+         * a delimiter they remain pending, otherwise the first of them is an
+         * ordinary byte and the others are matched again. At the end of the
+         * input a prefix can not be completed anymore.
+         */
+        private void resolve(boolean end) {
+            while (pendingLength > 0 && error == null) {
+                int token = this.match();
+                if (token == PREFIX && !end)
+                    return;
+                if (token >= 0) {
+                    this.enter(token);
+                    pendingLength = 0;
+                    return;
+                }
+                this.step(pending[0], pendingLines[0], pendingColumns[0]);
+                pendingLength--;
+                System.arraycopy(pending, 1, pending, 0, pendingLength);
+                System.arraycopy(pendingLines, 1, pendingLines, 0, pendingLength);
+                System.arraycopy(pendingColumns, 1, pendingColumns, 0, pendingLength);
+            }
+        }
+
+        /*
+         * Returns the delimiter formed by the pending bytes, PREFIX if they
+         * are a proper prefix of a delimiter or NONE.
+         */
+        private int match() {
+            if (state == CODE) {
+                int m = this.match(lineComment);
+                if (m != NONE)
+                    return m == PREFIX ? PREFIX : LINE_START;
+                m = this.match(blockCommentStart);
+                if (m != NONE)
+                    return m == PREFIX ? PREFIX : BLOCK_START;
+                return NONE;
+            }
+            int m = this.match(blockCommentEnd);
+            return m == NONE || m == PREFIX ? m : BLOCK_END;
+        }
+
+        private int match(byte[] d) {
+            if (d == null || pendingLength > d.length)
+                return NONE;
+            for (int i = 0; i < pendingLength; i++)
+                if (pending[i] != d[i])
+                    return NONE;
+            return pendingLength == d.length ? 0 : PREFIX;
+        }
+
+        /*
+         * Changes the state after a delimiter.
+         */
+        private void enter(int token) {
+            if (token == LINE_START)
+                state = LINE_COMMENT;
+            else if (token == BLOCK_START) {
+                state = BLOCK_COMMENT;
+                startLine = pendingLines[0];
+                startColumn = pendingColumns[0];
+            } else
+                state = CODE;
+        }
+
+        /*
+         * Processes a byte that is not part of a delimiter.
+         */
+        private void step(int b, int line, int column) {
+            switch (state) {
+                case CODE:
+                    if (openIndex[b] != -1) {
+                        stack.push(openIndex[b]);
+                        stackLines.push(line);
+                        stackColumns.push(column);
+                    } else if (closeIndex[b] != -1) {
+                        //una parentesi chiusa deve corrispondere all'ultima aperta.
+                        if (stack.isEmpty())
+                            this.fail(Result.Error.UNEXPECTED_CLOSE, line, column);
+                        else if (stack.pop() != closeIndex[b])
+                            this.fail(Result.Error.MISMATCHED_CLOSE, line, column);
+                        else {
+                            stackLines.pop();
+                            stackColumns.pop();
+                        }
+                    } else if (quote[b]) {
+                        state = STRING;
+                        openQuote = b;
+                        startLine = line;
+                        startColumn = column;
+                    }
+                    break;
+                case LINE_COMMENT:
+                    if (b == '\n')
+                        state = CODE;
+                    break;
+                case STRING:
+                    if (b == escape)
+                        state = ESCAPE;
+                    else if (b == openQuote)
+                        state = CODE;
+                    break;
+                case ESCAPE:
+                    state = STRING;
+                    break;
+                default:
+                    //nei commenti a blocco conta solo il delimitatore di chiusura.
+                    break;
+            }
+        }
+
+        private void fail(Result.Error e, int line, int column) {
+            error = e;
+            errorLine = line;
+            errorColumn = column;
+        }
+
+        /*
+         * Ends the scan and returns its result.
+         */
+        Result finish() {
+            this.resolve(true);
+            if (error == null) {
+                if (state == BLOCK_COMMENT)
+                    this.fail(Result.Error.UNTERMINATED_COMMENT, startLine, startColumn);
+                else if (state == STRING || state == ESCAPE)
+                    this.fail(Result.Error.UNTERMINATED_STRING, startLine, startColumn);
+                else if (!stack.isEmpty())
+                    this.fail(Result.Error.UNCLOSED_OPEN, stackLines.peek(),
+                            stackColumns.peek());
+            }
+            return new Result(error, errorLine, errorColumn);
+        }
+    }
+}
@@ -0,0 +1,882 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of the Java SE Double-ended Queue (Deque) interface
+ * (<code>java.util.Deque</code>) that can contain more elements than the ones
+ * fitting in the heap. Only a bounded number of elements at the head and at
+ * the tail of the deque are kept in memory; when one of these two parts is
+ * full its elements are <i>spilled</i> to the middle segment of the deque,
+ * which is stored in memory-mapped files (<code>FileChannel.map</code>) in a
+ * directory of the local disk. The elements are written to and read from the
+ * files by an <code>ElementSerializer</code> directly on the mapped buffers,
+ * and when the head (or the tail) becomes empty it is refilled with a batch of
+ * elements read sequentially from the files. A spill moves only the half of
+ * the full part nearest to the middle segment, and a refill reads at most
+ * half of the capacity, so a sequence of insertions and removals at the
+ * boundary does not move the whole part every time and costs amortized
+ * constant time.
+ *
+ * The middle segment is a sequence of files of fixed size. Each element is
+ * stored as its serialized bytes preceded and followed by their length, so a
+ * file can be consumed from both ends. The files are deleted as soon as all
+ * their elements have been removed, and all of them are deleted by
+ * <code>close()</code> or <code>clear()</code>. The channel of a file is
+ * closed as soon as the file is mapped, so the deque does not keep a file
+ * descriptor open for each file.
+ *
+ * This deque does not have capacity restrictions other than the free space on
+ * the disk. Duplicated elements are permitted while <code>null</code> elements
+ * are not permitted. The iterators are fail-fast like the ones of
+ * <code>ASDL2021Deque</code>. Since the elements in the files are not
+ * identified by a reference, the following operations are not supported:
+ * <ul>
+ * <li><code>public boolean remove(Object o)</code></li>
+ * <li><code>public boolean removeAll(Collection<?> c)</code></li>
+ * <li><code>public boolean retainAll(Collection<?> c)</code></li>
+ * <li><code>public boolean removeFirstOccurrence(Object o)</code></li>
+ * <li><code>public boolean removeLastOccurrence(Object o)</code></li>
+ * </ul>
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class SpillingDeque<E> implements Deque<E>, Closeable {
+
+    /*
+     * Bytes stored around each element for its length
+     */
+    private static final int RECORD_OVERHEAD = 2 * Integer.BYTES;
+
+    /*
+     * Default number of elements kept in memory at each end
+     */
+    private static final int DEFAULT_BUFFER_CAPACITY = 1 << 16;
+
+    /*
+     * Default size of the files of the middle segment
+     */
+    private static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    /*
+     * Directory containing the files of the middle segment
+     */
+    private final Path directory;
+
+    /*
+     * True if the directory was created by this deque and must be deleted by
+     * close()
+     */
+    private final boolean ownsDirectory;
+
+    /*
+     * Serializer used for the elements of the middle segment
+     */
+    private final ElementSerializer<E> serializer;
+
+    /*
+     * Maximum number of elements kept in memory at the head
+     */
+    private final int headCapacity;
+
+    /*
+     * Maximum number of elements kept in memory at the tail
+     */
+    private final int tailCapacity;
+
+    /*
+     * Size in bytes of the files of the middle segment
+     */
+    private final int segmentSize;
+
+    /*
+     * Elements at the head of this deque, kept in memory
+     */
+    private final ASDL2021ArrayDeque<E> head;
+
+    /*
+     * Files of the middle segment, in order
+     */
+    private final ASDL2021Deque<Segment> segments;
+
+    /*
+     * Number of elements stored in the files
+     */
+    private long middleSize;
+
+    /*
+     * Elements at the tail of this deque, kept in memory
+     */
+    private final ASDL2021ArrayDeque<E> tail;
+
+    /*
+     * Number of changes in the deque.
+     */
+    private int actualChanges;
+
+    /**
+     * Constructs an empty deque that stores its middle segment in a new
+     * temporary directory, with default sizes.
+     *
+     * @param serializer
+     *                       the serializer of the elements
+     * @throws NullPointerException
+     *                                  if serializer is null
+     * @throws UncheckedIOException
+     *                                  if the directory can not be created
+     */
+    public SpillingDeque(ElementSerializer<E> serializer) {
+        this(createTempDirectory(), true, serializer, DEFAULT_BUFFER_CAPACITY,
+                DEFAULT_BUFFER_CAPACITY, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructs an empty deque.
+     *
+     * @param directory
+     *                         the existing directory where the files of the
+     *                         middle segment will be created
+     * @param serializer
+     *                         the serializer of the elements
+     * @param headCapacity
+     *                         the maximum number of elements kept in memory at
+     *                         the head
+     * @param tailCapacity
+     *                         the maximum number of elements kept in memory at
+     *                         the tail
+     * @param segmentSize
+     *                         the size in bytes of each file of the middle
+     *                         segment; an element bigger than this size is
+     *                         stored in a file on its own
+     * @throws NullPointerException
+     *                                      if directory or serializer are null
+     * @throws IllegalArgumentException
+     *                                      if one of the capacities or the
+     *                                      segment size is not positive
+     */
+    public SpillingDeque(Path directory, ElementSerializer<E> serializer,
+            int headCapacity, int tailCapacity, int segmentSize) {
+        this(directory, false, serializer, headCapacity, tailCapacity,
+                segmentSize);
+    }
+
+    private SpillingDeque(Path directory, boolean ownsDirectory,
+            ElementSerializer<E> serializer, int headCapacity,
+            int tailCapacity, int segmentSize) {
+        if (directory == null || serializer == null)
+            throw new NullPointerException("the directory or the serializer is null.");
+        if (headCapacity <= 0 || tailCapacity <= 0 || segmentSize <= 0)
+            throw new IllegalArgumentException("the capacities must be positive.");
+        this.directory = directory;
+        this.ownsDirectory = ownsDirectory;
+        this.serializer = serializer;
+        this.headCapacity = headCapacity;
+        this.tailCapacity = tailCapacity;
+        this.segmentSize = segmentSize;
+        this.head = new ASDL2021ArrayDeque<E>();
+        this.segments = new ASDL2021Deque<Segment>();
+        this.middleSize = 0;
+        this.tail = new ASDL2021ArrayDeque<E>();
+        this.actualChanges = 0;
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("spilling-deque");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * File of the middle segment containing a sequence of consecutive elements
+     * of the deque between the offsets start and end. New elements can be
+     * written before start and after end while there is space.
+     */
+    private class Segment {
+
+        private final Path file;
+
+        private final MappedByteBuffer buffer;
+
+        private int start;
+
+        private int end;
+
+        /*
+         * Creates and maps a new file. If atEnd is true the file will be
+         * filled from the beginning, otherwise from the end. The channel is
+         * closed right after the mapping, which stays valid.
+         */
+        Segment(int size, boolean atEnd) {
+            try {
+                //la directory temporanea potrebbe essere stata eliminata da close().
+                if (ownsDirectory)
+                    Files.createDirectories(directory);
+                this.file = Files.createTempFile(directory, "segment", ".bin");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } catch (IOException e) {
+                //la mappatura non è riuscita (per esempio il disco è pieno): elimino il file.
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw new UncheckedIOException(e);
+            }
+            this.start = this.end = atEnd ? 0 : size;
+        }
+
+        boolean isEmpty() {
+            return start == end;
+        }
+
+        boolean canAppend(int recordSize) {
+            return buffer.capacity() - end >= recordSize;
+        }
+
+        boolean canPrepend(int recordSize) {
+            return start >= recordSize;
+        }
+
+        void append(E e, int length) {
+            write(end, e, length);
+            end += length + RECORD_OVERHEAD;
+        }
+
+        void prepend(E e, int length) {
+            //sposto start solo dopo che la scrittura è riuscita.
+            int offset = start - length - RECORD_OVERHEAD;
+            write(offset, e, length);
+            start = offset;
+        }
+
+        /*
+         * Writes an element and its length at the given offset.
+         */
+        private void write(int offset, E e, int length) {
+            buffer.putInt(offset, length);
+            serializer.serialize(e, view(offset + Integer.BYTES, length));
+            buffer.putInt(offset + Integer.BYTES + length, length);
+        }
+
+        E removeFirst() {
+            int length = buffer.getInt(start);
+            E item = serializer.deserialize(view(start + Integer.BYTES, length));
+            start += length + RECORD_OVERHEAD;
+            return item;
+        }
+
+        E removeLast() {
+            int length = buffer.getInt(end - Integer.BYTES);
+            end -= length + RECORD_OVERHEAD;
+            return serializer.deserialize(view(end + Integer.BYTES, length));
+        }
+
+        /*
+         * Returns the element stored at the given offset, without removing it.
+         */
+        E read(int offset) {
+            return serializer.deserialize(
+                    view(offset + Integer.BYTES, buffer.getInt(offset)));
+        }
+
+        /*
+         * Returns the offset following the element stored at the given offset.
+         */
+        int nextOffset(int offset) {
+            return offset + buffer.getInt(offset) + RECORD_OVERHEAD;
+        }
+
+        /*
+         * Returns the offset of the element preceding the given offset.
+         */
+        int previousOffset(int offset) {
+            return offset - buffer.getInt(offset - Integer.BYTES) - RECORD_OVERHEAD;
+        }
+
+        /*
+         * Returns a view of the mapped file, without copying the bytes.
+         */
+        private ByteBuffer view(int offset, int length) {
+            ByteBuffer b = buffer.duplicate();
+            b.position(offset);
+            b.limit(offset + length);
+            return b.slice();
+        }
+
+        /*
+         * Deletes the file. The mapping is released by the garbage collector.
+         */
+        void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /*
+     * Moves the first half of the elements of the tail, the ones nearest to
+     * the middle segment, at the end of the middle segment. Each element is
+     * removed from the tail only after it has been written, so if the
+     * serializer or the creation of a file fail the deque is not changed for
+     * that element.
+     */
+    private void spillTail() {
+        //anche uno spostamento interrotto da un errore invalida gli iteratori.
+        actualChanges++;
+        for (int n = (tail.size() + 1) / 2; n > 0; n--) {
+            E e = tail.peekFirst();
+            int length = serializer.serializedSize(e);
+            int recordSize = length + RECORD_OVERHEAD;
+            Segment s = segments.peekLast();
+            //se l'ultimo file non ha spazio ne creo uno nuovo, che aggiungo
+            //ai segmenti solo dopo averci scritto l'elemento.
+            boolean created = s == null || !s.canAppend(recordSize);
+            if (created)
+                s = new Segment(Math.max(segmentSize, recordSize), true);
+            write(s, created, e, length, true);
+            if (created)
+                segments.addLast(s);
+            tail.pollFirst();
+            middleSize++;
+        }
+    }
+
+    /*
+     * Moves the last half of the elements of the head, the ones nearest to the
+     * middle segment, at the beginning of the middle segment, removing each
+     * element from the head only after it has been written.
+     */
+    private void spillHead() {
+        //anche uno spostamento interrotto da un errore invalida gli iteratori.
+        actualChanges++;
+        for (int n = (head.size() + 1) / 2; n > 0; n--) {
+            E e = head.peekLast();
+            int length = serializer.serializedSize(e);
+            int recordSize = length + RECORD_OVERHEAD;
+            Segment s = segments.peekFirst();
+            //se il primo file non ha spazio ne creo uno nuovo.
+            boolean created = s == null || !s.canPrepend(recordSize);
+            if (created)
+                s = new Segment(Math.max(segmentSize, recordSize), false);
+            write(s, created, e, length, false);
+            if (created)
+                segments.addFirst(s);
+            head.pollLast();
+            middleSize++;
+        }
+    }
+
+    /*
+     * Writes an element at the end (or at the beginning) of a file. If the
+     * write fails and the file has just been created, the file is deleted.
+     */
+    private void write(Segment s, boolean created, E e, int length,
+            boolean atEnd) {
+        try {
+            if (atEnd)
+                s.append(e, length);
+            else
+                s.prepend(e, length);
+        } catch (RuntimeException ex) {
+            if (created)
+                s.delete();
+            throw ex;
+        }
+    }
+
+    /*
+     * Reads at most half of headCapacity elements from the beginning of the
+     * middle segment into the empty head, leaving room for the following
+     * insertions at the head.
+     */
+    private void refillHead() {
+        int target = Math.max(1, headCapacity / 2);
+        while (middleSize > 0 && head.size() < target) {
+            Segment s = segments.getFirst();
+            head.addLast(s.removeFirst());
+            middleSize--;
+            //il file è stato consumato: lo elimino.
+            if (s.isEmpty())
+                segments.removeFirst().delete();
+        }
+    }
+
+    /*
+     * Reads at most half of tailCapacity elements from the end of the middle
+     * segment into the empty tail.
+     */
+    private void refillTail() {
+        int target = Math.max(1, tailCapacity / 2);
+        while (middleSize > 0 && tail.size() < target) {
+            Segment s = segments.getLast();
+            tail.addFirst(s.removeLast());
+            middleSize--;
+            if (s.isEmpty())
+                segments.removeLast().delete();
+        }
+    }
+
+    @Override
+    public void addFirst(E e) {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        //caso 1 - la testa e il segmento centrale sono vuoti: l'elemento può
+        //andare nella coda in memoria, se c'è posto.
+        if (head.isEmpty() && middleSize == 0 && tail.size() < tailCapacity)
+            tail.addFirst(e);
+        //caso 2 - inserisco nella testa e, se è piena, la riverso su disco.
+        else {
+            if (head.size() == headCapacity)
+                spillHead();
+            head.addFirst(e);
+        }
+        actualChanges++;
+    }
+
+    @Override
+    public void addLast(E e) {
+        if (e == null)
+            throw new NullPointerException("this element is null.");
+        if (tail.isEmpty() && middleSize == 0 && head.size() < headCapacity)
+            head.addLast(e);
+        else {
+            if (tail.size() == tailCapacity)
+                spillTail();
+            tail.addLast(e);
+        }
+        actualChanges++;
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        this.addFirst(e);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        this.addLast(e);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        E item = this.pollFirst();
+        if (item == null)
+            throw new NoSuchElementException("the deque is empty.");
+        return item;
+    }
+
+    @Override
+    public E removeLast() {
+        E item = this.pollLast();
+        if (item == null)
+            throw new NoSuchElementException("the deque is empty");
+        return item;
+    }
+
+    @Override
+    public E pollFirst() {
+        if (head.isEmpty())
+            refillHead();
+        //se anche il segmento centrale è vuoto il primo elemento è nella coda.
+        E item = head.isEmpty() ? tail.pollFirst() : head.pollFirst();
+        if (item != null)
+            actualChanges++;
+        return item;
+    }
+
+    @Override
+    public E pollLast() {
+        if (tail.isEmpty())
+            refillTail();
+        E item = tail.isEmpty() ? head.pollLast() : tail.pollLast();
+        if (item != null)
+            actualChanges++;
+        return item;
+    }
+
+    @Override
+    public E getFirst() {
+        E item = this.peekFirst();
+        if (item == null)
+            throw new NoSuchElementException("this list is empty.");
+        return item;
+    }
+
+    @Override
+    public E getLast() {
+        E item = this.peekLast();
+        if (item == null)
+            throw new NoSuchElementException("this list is empty.");
+        return item;
+    }
+
+    /**
+     * Returns the first element without moving any element between the memory
+     * and the files: if the head is empty the element is read directly from
+     * the first file, so the open iterators remain valid.
+     */
+    @Override
+    public E peekFirst() {
+        if (!head.isEmpty())
+            return head.peekFirst();
+        if (middleSize > 0) {
+            Segment s = segments.getFirst();
+            return s.read(s.start);
+        }
+        return tail.peekFirst();
+    }
+
+    /**
+     * Returns the last element without moving any element between the memory
+     * and the files: if the tail is empty the element is read directly from
+     * the last file, so the open iterators remain valid.
+     */
+    @Override
+    public E peekLast() {
+        if (!tail.isEmpty())
+            return tail.peekLast();
+        if (middleSize > 0) {
+            Segment s = segments.getLast();
+            return s.read(s.previousOffset(s.end));
+        }
+        return head.peekLast();
+    }
+
+    @Override
+    public boolean add(E e) {
+        this.addLast(e);
+        return true;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return this.offerLast(e);
+    }
+
+    @Override
+    public E remove() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return this.getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(E e) {
+        this.addFirst(e);
+    }
+
+    @Override
+    public E pop() {
+        return this.removeFirst();
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        throw new UnsupportedOperationException(
+                "This class does not implement this service.");
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        throw new UnsupportedOperationException(
+                "This class does not implement this service.");
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException(
+                "This class does not implement this service.");
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException(
+                "This class does not implement this service.");
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException(
+                "This class does not implement this service.");
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null)
+            throw new NullPointerException("the element is null.");
+        for (E item : this)
+            if (o.equals(item))
+                return true;
+        return false;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for (Object o : c)
+            if (!this.contains(o))
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        for (E o : c) {
+            if (o == null)
+                throw new NullPointerException("the element is null. this list doesn't permit null element.");
+            this.addLast(o);
+        }
+        return !c.isEmpty();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return snapshot().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return snapshot().toArray(a);
+    }
+
+    /*
+     * Copies all the elements in a list, reading the files sequentially.
+     */
+    private ArrayList<E> snapshot() {
+        ArrayList<E> list = new ArrayList<E>((int) Math.min(Integer.MAX_VALUE - 8, longSize()));
+        for (E item : this)
+            list.add(item);
+        return list;
+    }
+
+    /**
+     * Returns the number of elements in this deque, or
+     * <code>Integer.MAX_VALUE</code> if there are more elements.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, longSize());
+    }
+
+    /**
+     * Returns the exact number of elements in this deque, that may be more
+     * than <code>Integer.MAX_VALUE</code>.
+     *
+     * @return the number of elements in this deque
+     */
+    public long longSize() {
+        return head.size() + middleSize + tail.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return longSize() == 0;
+    }
+
+    @Override
+    public void clear() {
+        head.clear();
+        tail.clear();
+        //elimino tutti i file del segmento centrale.
+        while (!segments.isEmpty())
+            segments.removeFirst().delete();
+        middleSize = 0;
+        actualChanges++;
+    }
+
+    /**
+     * Removes all the elements and deletes all the files of the middle
+     * segment, and the temporary directory if it was created by this deque.
+     * The deque can still be used after this operation.
+     *
+     * @throws UncheckedIOException
+     *                                  if the directory can not be deleted
+     */
+    @Override
+    public void close() {
+        this.clear();
+        if (ownsDirectory) {
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    /*
+     * Class for implementing an iterator for this deque: it visits the head,
+     * the files of the middle segment, reading the elements directly from the
+     * mapped buffers, and then the tail. The iterator is fail-safe: it
+     * detects if during the iteration a modification to the original deque
+     * was done and, if so, it launches a
+     * <code>ConcurrentModificationException</code> as soon as a call to the
+     * method <code>next()</code> is done.
+     */
+    private class Itr implements Iterator<E> {
+
+        //iteratore della parte in memoria che si sta visitando
+        private Iterator<E> memory;
+        //true se si sta visitando la testa
+        private boolean inHead;
+        //iteratore dei file e file corrente
+        private final Iterator<Segment> files;
+        private Segment segment;
+        //posizione del prossimo elemento nel file corrente
+        private int offset;
+        //modifiche attese
+        private final int expectedChanges;
+
+        Itr() {
+            this.memory = head.iterator();
+            this.inHead = true;
+            this.files = segments.iterator();
+            this.segment = null;
+            this.expectedChanges = SpillingDeque.this.actualChanges;
+        }
+
+        public boolean hasNext() {
+            if (memory.hasNext())
+                return true;
+            //la testa è finita: passo ai file.
+            if (inHead) {
+                if (segment != null && offset < segment.end)
+                    return true;
+                while (files.hasNext()) {
+                    segment = files.next();
+                    offset = segment.start;
+                    if (offset < segment.end)
+                        return true;
+                }
+                //i file sono finiti: passo alla coda.
+                inHead = false;
+                segment = null;
+                memory = tail.iterator();
+                return memory.hasNext();
+            }
+            return false;
+        }
+
+        public E next() {
+            if (actualChanges != expectedChanges)
+                throw new ConcurrentModificationException("the changes don't match.");
+            if (!this.hasNext())
+                throw new NoSuchElementException("the list has no more elements");
+            if (segment == null)
+                return memory.next();
+            E item = segment.read(offset);
+            offset = segment.nextOffset(offset);
+            return item;
+        }
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new DescItr();
+    }
+
+    /*
+     * Class for implementing a descending iterator for this deque: it visits
+     * the tail, the files of the middle segment from the last and then the
+     * head. The iterator is fail-safe like <code>Itr</code>.
+     */
+    private class DescItr implements Iterator<E> {
+
+        //iteratore della parte in memoria che si sta visitando
+        private Iterator<E> memory;
+        //true se si sta visitando la coda
+        private boolean inTail;
+        //iteratore dei file e file corrente
+        private final Iterator<Segment> files;
+        private Segment segment;
+        //posizione successiva al prossimo elemento nel file corrente
+        private int offset;
+        //modifiche attese
+        private final int expectedChanges;
+
+        DescItr() {
+            this.memory = tail.descendingIterator();
+            this.inTail = true;
+            this.files = segments.descendingIterator();
+            this.segment = null;
+            this.expectedChanges = SpillingDeque.this.actualChanges;
+        }
+
+        public boolean hasNext() {
+            if (memory.hasNext())
+                return true;
+            if (inTail) {
+                if (segment != null && offset > segment.start)
+                    return true;
+                while (files.hasNext()) {
+                    segment = files.next();
+                    offset = segment.end;
+                    if (offset > segment.start)
+                        return true;
+                }
+                inTail = false;
+                segment = null;
+                memory = head.descendingIterator();
+                return memory.hasNext();
+            }
+            return false;
+        }
+
+        public E next() {
+            if (actualChanges != expectedChanges)
+                throw new ConcurrentModificationException("the changes don't match.");
+            if (!this.hasNext())
+                throw new NoSuchElementException("the list has no more elements");
+            if (segment == null)
+                return memory.next();
+            offset = segment.previousOffset(offset);
+            return segment.read(offset);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue for exactly one producer thread and one consumer thread
+ * (single-producer/single-consumer). The elements are stored in a circular
+ * array whose length is a power of two; the producer advances the
+ * <i>tail</i> sequence and the consumer the <i>head</i> sequence, and neither
+ * of them ever waits for the other or executes atomic read-modify-write
+ * operations: each thread publishes its progress with an ordered write
+ * (<code>lazySet</code>) and reads the sequence of the other thread only when
+ * its cached copy is not enough to proceed.
+ *
+ * The two sequences are padded so that they lie in different cache lines and
+ * the producer and the consumer do not invalidate each other's cache line
+ * (false sharing). The copy of the other sequence cached by a thread is kept
+ * in the padded cache line of the sequence that the same thread writes. The
+ * batch operations <code>offerAll</code> and <code>drain</code> move many
+ * elements with a single publication.
+ *
+ * The methods <code>offer</code> and <code>offerAll</code> must be called only
+ * by the producer thread, <code>poll</code>, <code>peek</code> and
+ * <code>drain</code> only by the consumer thread. <code>null</code> elements
+ * are not permitted.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class SpscRingBuffer<E> {
+
+    /*
+     * Circular array containing the elements
+     */
+    private final Object[] buffer;
+
+    /*
+     * Length of the array minus one, used to wrap the sequences
+     */
+    private final int mask;
+
+    /*
+     * Sequence of the next element to remove, written only by the consumer;
+     * its cached value is the last value of tail read by the consumer
+     */
+    private final Sequence head;
+
+    /*
+     * Sequence of the next free position, written only by the producer; its
+     * cached value is the last value of head read by the producer
+     */
+    private final Sequence tail;
+
+    /**
+     * Constructs an empty ring buffer.
+     *
+     * @param capacity
+     *                     the minimum number of elements that the buffer can
+     *                     contain; it is rounded to the next power of two
+     * @throws IllegalArgumentException
+     *                                      if capacity is not positive or
+     *                                      greater than 2^30
+     */
+    public SpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30)
+            throw new IllegalArgumentException("the capacity is not valid.");
+        int length = 1;
+        while (length < capacity)
+            length <<= 1;
+        this.buffer = new Object[length];
+        this.mask = length - 1;
+        this.head = new Sequence();
+        this.tail = new Sequence();
+    }
+
+    /**
+     * @return the maximum number of elements in this buffer
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Returns the number of elements in this buffer. The result is only an
+     * estimate while the producer or the consumer are working.
+     *
+     * @return the number of elements in this buffer
+     */
+    public int size() {
+        //leggo head per primo così il risultato non è mai negativo.
+        long h = head.get();
+        return (int) (tail.get() - h);
+    }
+
+    /**
+     * @return true if this buffer contains no elements, false otherwise. The
+     *         result is only an estimate while the producer or the consumer
+     *         are working.
+     */
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Inserts an element, if there is space. Only the producer thread can call
+     * this method.
+     *
+     * @param e
+     *              the element to insert
+     * @return true if the element has been inserted, false if the buffer is
+     *         full
+     * @throws NullPointerException
+     *                                  if the element is null
+     */
+    public boolean offer(E e) {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        long t = tail.get();
+        //rileggo head solo se la copia locale dice che il buffer è pieno.
+        if (t - tail.cached >= buffer.length) {
+            tail.cached = head.get();
+            if (t - tail.cached >= buffer.length)
+                return false;
+        }
+        buffer[(int) t & mask] = e;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Inserts as many elements of a collection as there is space for, in the
+     * order of its iterator, publishing them all at once. Only the producer
+     * thread can call this method.
+     *
+     * @param c
+     *              the elements to insert
+     * @return the number of elements inserted
+     * @throws NullPointerException
+     *                                  if c or one of its elements is null
+     */
+    public int offerAll(Collection<? extends E> c) {
+        if (c == null)
+            throw new NullPointerException("the collection is null.");
+        long t = tail.get();
+        int free = (int) (buffer.length - (t - tail.cached));
+        if (free < c.size()) {
+            tail.cached = head.get();
+            free = (int) (buffer.length - (t - tail.cached));
+        }
+        int n = 0;
+        Iterator<? extends E> it = c.iterator();
+        try {
+            while (n < free && it.hasNext()) {
+                E e = it.next();
+                if (e == null)
+                    throw new NullPointerException("the element is null.");
+                buffer[(int) (t + n) & mask] = e;
+                n++;
+            }
+        } finally {
+            //pubblico con una sola scrittura gli elementi inseriti.
+            if (n > 0)
+                tail.lazySet(t + n);
+        }
+        return n;
+    }
+
+    /**
+     * Removes the oldest element. Only the consumer thread can call this
+     * method.
+     *
+     * @return the oldest element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head.get();
+        //rileggo tail solo se la copia locale dice che il buffer è vuoto.
+        if (h >= head.cached) {
+            head.cached = tail.get();
+            if (h >= head.cached)
+                return null;
+        }
+        int index = (int) h & mask;
+        E e = (E) buffer[index];
+        buffer[index] = null;
+        head.lazySet(h + 1);
+        return e;
+    }
+
+    /**
+     * Returns, without removing it, the oldest element. Only the consumer
+     * thread can call this method.
+     *
+     * @return the oldest element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        long h = head.get();
+        if (h >= head.cached) {
+            head.cached = tail.get();
+            if (h >= head.cached)
+                return null;
+        }
+        return (E) buffer[(int) h & mask];
+    }
+
+    /**
+     * Removes at most the given number of elements, from the oldest, and
+     * passes them to an action, releasing their positions all at once. If the
+     * action throws an exception, the elements passed to it until then,
+     * including the one that caused the exception, are removed. Only the
+     * consumer thread can call this method.
+     *
+     * @param action
+     *                        the action to execute on each element
+     * @param maxElements
+     *                        the maximum number of elements to remove
+     * @return the number of elements removed
+     * @throws NullPointerException
+     *                                      if action is null
+     * @throws IllegalArgumentException
+     *                                      if maxElements is negative
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<? super E> action, int maxElements) {
+        if (action == null)
+            throw new NullPointerException("the action is null.");
+        if (maxElements < 0)
+            throw new IllegalArgumentException("the maximum number of elements is negative.");
+        long h = head.get();
+        long available = head.cached - h;
+        if (available < maxElements) {
+            head.cached = tail.get();
+            available = head.cached - h;
+        }
+        int n = (int) Math.min(available, maxElements);
+        int i = 0;
+        try {
+            while (i < n) {
+                int index = (int) (h + i) & mask;
+                E e = (E) buffer[index];
+                buffer[index] = null;
+                //conto l'elemento prima dell'azione: se l'azione fallisce la
+                //sua posizione, già svuotata, viene comunque rilasciata.
+                i++;
+                action.accept(e);
+            }
+        } finally {
+            //rilascio con una sola scrittura le posizioni consumate.
+            if (i > 0)
+                head.lazySet(h + i);
+        }
+        return n;
+    }
+
+    /**
+     * Removes all the elements currently available and passes them to an
+     * action. Only the consumer thread can call this method.
+     *
+     * @param action
+     *                   the action to execute on each element
+     * @return the number of elements removed
+     * @throws NullPointerException
+     *                                  if action is null
+     */
+    public int drain(Consumer<? super E> action) {
+        return this.drain(action, buffer.length);
+    }
+
+    /*
+     * Padding preceding the value of a sequence.
+     */
+    @SuppressWarnings("unused")
+    private static class LeftPadding {
+        protected long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    /*
+     * Value of a sequence and the last value of the other sequence read by the
+     * thread that writes this one, so that both lie in the same cache line.
+     */
+    private static class SequenceValue extends LeftPadding {
+        protected volatile long value;
+        protected long cached;
+    }
+
+    /*
+     * Sequence counter padded on both sides, so that it occupies a cache line
+     * on its own. Fields of a subclass are laid out after the ones of its
+     * superclass.
+     */
+    @SuppressWarnings("unused")
+    private static final class Sequence extends SequenceValue {
+
+        private static final AtomicLongFieldUpdater<SequenceValue> VALUE =
+                AtomicLongFieldUpdater.newUpdater(SequenceValue.class, "value");
+
+        protected long p9, p10, p11, p12, p13, p14, p15;
+
+        /*
+         * Volatile read.
+         */
+        long get() {
+            return value;
+        }
+
+        /*
+         * Ordered write: the previous writes are visible to the thread that
+         * reads the new value, without a full memory fence.
+         */
+        void lazySet(long newValue) {
+            VALUE.lazySet(this, newValue);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ *
+ */
+package it.unicam.cs.asdl2021.mp1;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Work-stealing deque (D. Chase, Y. Lev, "Dynamic circular work-stealing
+ * deque", 2005) to be used as the queue of tasks of a single worker thread in
+ * a pool of workers. Only the thread owning the deque can insert and remove
+ * elements at the <i>bottom</i>, with the methods <code>push</code> and
+ * <code>pop</code>, which in the common case do not execute any atomic
+ * read-modify-write operation. Any other thread can remove elements from the
+ * <i>top</i> with the method <code>steal</code>, that uses a compare-and-set
+ * on the index of the top; a compare-and-set is done by the owner only when
+ * it competes with the thieves for the last element.
+ *
+ * The owner works in LIFO order, the thieves take the oldest elements. The
+ * elements are stored in a circular array whose length is a power of two and
+ * that is doubled by the owner when it is full. <code>null</code> elements
+ * are not permitted.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class WorkStealingDeque<E> {
+
+    /*
+     * Initial capacity of the circular array, it must be a power of two
+     */
+    private static final int INITIAL_CAPACITY = 32;
+
+    /*
+     * Index of the top, the next element to steal. It only increases.
+     */
+    private final AtomicLong top;
+
+    /*
+     * Index of the bottom, the next free position for the owner. It is
+     * written only by the owner.
+     */
+    private volatile long bottom;
+
+    /*
+     * Circular array containing the elements. The element of index i is at
+     * position i & (length - 1). It is replaced only by the owner.
+     */
+    private volatile AtomicReferenceArray<E> array;
+
+    /**
+     * Constructs an empty deque.
+     */
+    public WorkStealingDeque() {
+        this.top = new AtomicLong(0);
+        this.bottom = 0;
+        this.array = new AtomicReferenceArray<E>(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Inserts an element at the bottom of this deque. This method must be
+     * called only by the owner thread.
+     *
+     * @param e
+     *              the element to insert
+     * @throws NullPointerException
+     *                                  if the element is null
+     */
+    public void push(E e) {
+        if (e == null)
+            throw new NullPointerException("the element is null.");
+        long b = bottom;
+        long t = top.get();
+        AtomicReferenceArray<E> a = array;
+        //se l'array è pieno lo raddoppio.
+        if (b - t > a.length() - 1)
+            a = grow(a, b, t);
+        a.set((int) b & (a.length() - 1), e);
+        //la scrittura volatile di bottom pubblica l'elemento ai ladri.
+        bottom = b + 1;
+    }
+
+    /**
+     * Removes and returns the element at the bottom of this deque, i.e., the
+     * last element pushed. This method must be called only by the owner
+     * thread.
+     *
+     * @return the element at the bottom of this deque, or null if the deque is
+     *         empty or its last element has been stolen in the meantime
+     */
+    public E pop() {
+        long b = bottom - 1;
+        AtomicReferenceArray<E> a = array;
+        //prenoto l'elemento in fondo prima di leggere top, così un ladro
+        //concorrente vede la coda già ridotta.
+        bottom = b;
+        long t = top.get();
+        //caso 1 - la coda è vuota. ripristino bottom.
+        if (t > b) {
+            bottom = b + 1;
+            return null;
+        }
+        int index = (int) b & (a.length() - 1);
+        E item = a.get(index);
+        //caso 2 - ci sono altri elementi, nessun ladro può arrivare a questo.
+        if (t < b) {
+            a.set(index, null);
+            return item;
+        }
+        //caso 3 - è l'ultimo elemento: lo contendo ai ladri con un CAS su top.
+        if (!top.compareAndSet(t, t + 1))
+            item = null;
+        else
+            a.set(index, null);
+        bottom = b + 1;
+        return item;
+    }
+
+    /**
+     * Removes and returns the element at the top of this deque, i.e., the
+     * oldest element. This method can be called by any thread.
+     *
+     * @return the element at the top of this deque, or null if the deque is
+     *         empty
+     */
+    public E steal() {
+        while (true) {
+            long t = top.get();
+            long b = bottom;
+            if (t >= b)
+                return null;
+            AtomicReferenceArray<E> a = array;
+            int index = (int) t & (a.length() - 1);
+            E item = a.get(index);
+            //se un altro thread ha preso l'elemento nel frattempo riprovo.
+            if (top.compareAndSet(t, t + 1)) {
+                //libero la posizione solo se contiene ancora l'elemento rubato:
+                //il proprietario potrebbe averci già inserito un nuovo elemento.
+                a.compareAndSet(index, item, null);
+                return item;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements in this deque. The result is only an
+     * estimate if other threads are using the deque.
+     *
+     * @return the number of elements in this deque
+     */
+    public int size() {
+        long n = bottom - top.get();
+        return n < 0 ? 0 : (int) Math.min(n, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return true if this deque contains no elements, false otherwise. The
+     *         result is only an estimate if other threads are using the
+     *         deque.
+     */
+    public boolean isEmpty() {
+        return bottom - top.get() <= 0;
+    }
+
+    /*
+     * Copies the elements of indexes from t to b - 1 in a new array of double
+     * length and publishes it. Only the owner calls this method.
+     */
+    private AtomicReferenceArray<E> grow(AtomicReferenceArray<E> a, long b,
+            long t) {
+        int newLength = a.length() << 1;
+        if (newLength <= 0)
+            throw new IllegalStateException("the deque is too big.");
+        AtomicReferenceArray<E> newArray = new AtomicReferenceArray<E>(newLength);
+        for (long i = t; i < b; i++)
+            newArray.set((int) i & (newLength - 1), a.get((int) i & (a.length() - 1)));
+        this.array = newArray;
+        return newArray;
+    }
+}
@@ -74,42 +74,30 @@ public class PrimMSP<L> {
         //setto la priorità del nodo di partenza a 0 e sicuramente non avrà nodi prima.
         s.setPriority(0);
         s.setPrevious(null);
-        //inserisco i nodi in una coda di priorità.
         //inizialmente i nodi sono tutti bianchi.
-        for(GraphNode<L> node : g.getNodes()) {
+        for(GraphNode<L> node : g.getNodes())
             node.setColor(GraphNode.COLOR_WHITE);
-            queue.insert(node);
-        }
+        //inserisco tutti i nodi nella coda di priorità costruendo lo heap in tempo lineare.
+        queue.insertAll(g.getNodes());
         //fino a che ci sono elementi nella coda di priorità
         while(!queue.getTernaryHeap().isEmpty()){
             //parto da primo nodo.
             s = (GraphNode<L>) queue.extractMinimum();
-            //prendo tutti i nodi adiacenti a lui
-            for(GraphNode<L> v : g.getAdjacentNodesOf(s)){
-                //controllo che il nodo non sia gia stato visitato.
-                if(v.getColor() != GraphNode.COLOR_BLACK) {  
-                    //prendo ogni arco del nodo estratto dalla coda
-                    for (GraphEdge<L> e : g.getEdgesOf(s)) {
-                        pesoArco = e.getWeight();
-                        //se il nodo adiacente iterato in questo momento corrisponde
-                        //al nodo sorgente o destinazione di un certo arco
-                        //del nodo estratto dalla coda, controllo se il peso di questo arco che si sta iterando
-                        //è minore della priorità del nodo adiacente (iterato in questo momento) del nodo estratto
-                        //dalla coda.
-                        //se si, il nodo estratto dalla coda di priorità diventa il nodo precedente al nodo adiacente
-                        //iterato in questo momento
-                        //infine setto la priorità del nodo adiacente iterato uguale al peso dell'arco iterato.
-                        if(v == e.getNode2() || v == e.getNode1()){
-                            if (pesoArco < v.getPriority()) {
-                                    v.setPrevious(s);
-                                    queue.decreasePriority(v, pesoArco);
-                            }
-                        }
-                    }
-                }
-                else
+            //il nodo estratto entra nell'albero.
+            s.setColor(GraphNode.COLOR_BLACK);
+            //scorro una sola volta gli archi del nodo estratto dalla coda: per ogni arco
+            //prendo l'altro estremo e, se non è ancora stato visitato e il peso dell'arco
+            //è minore della sua priorità, il nodo estratto diventa il suo precedente e
+            //la sua priorità diventa il peso dell'arco.
+            for (GraphEdge<L> e : g.getEdgesOf(s)) {
+                GraphNode<L> v = e.getNode1().equals(s) ? e.getNode2() : e.getNode1();
+                if (v.getColor() == GraphNode.COLOR_BLACK)
                     continue;
-                s.setColor(GraphNode.COLOR_BLACK);
+                pesoArco = e.getWeight();
+                if (pesoArco < v.getPriority()) {
+                    v.setPrevious(s);
+                    queue.decreasePriority(v, pesoArco);
+                }
             }
         }
     }
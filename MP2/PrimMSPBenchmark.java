@@ -0,0 +1,277 @@
+package it.unicam.cs.asdl2021.mp2;
+
+import java.util.*;
+
+/**
+ * Benchmark eseguibile dell'algoritmo di Prim implementato dalla classe
+ * PrimMSP. Costruisce un grafo non orientato, connesso e pesato con pesi
+ * casuali non negativi e misura il tempo di computeMSP su più ripetizioni,
+ * dopo un'esecuzione di riscaldamento. Viene stampato anche il peso totale
+ * dell'albero trovato, che deve essere lo stesso in ogni ripetizione.
+ *
+ * Il grafo è rappresentato con liste di adiacenza (classe interna
+ * SparseUndirectedGraph) perché AdjacencyMatrixUndirectedGraph non è pensata
+ * per grafi sparsi di queste dimensioni e il tempo di costruzione del grafo
+ * coprirebbe quello dell'algoritmo.
+ *
+ * Uso: {@code java it.unicam.cs.asdl2021.mp2.PrimMSPBenchmark [nodi] [archi]
+ * [ripetizioni] [seme]}, per default 100000 nodi, 1000000 archi, 5
+ * ripetizioni e seme 42.
+ *
+ * @author ALESSANDRO TESTA - alessandro.testa@studenti.unicam.it
+ *
+ */
+public class PrimMSPBenchmark {
+
+    /**
+     * Esegue il benchmark.
+     *
+     * @param args
+     *                 numero di nodi, numero di archi, numero di ripetizioni e
+     *                 seme del generatore casuale, tutti opzionali
+     */
+    public static void main(String[] args) {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int edges = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        if (nodes < 1 || edges < nodes - 1
+                || edges > (long) nodes * (nodes - 1) / 2 || runs < 1)
+            throw new IllegalArgumentException("not ok");
+
+        long start = System.nanoTime();
+        SparseUndirectedGraph<Integer> g = randomGraph(nodes, edges, seed);
+        System.out.printf("grafo: %d nodi, %d archi, costruito in %d ms%n",
+                g.nodeCount(), g.edgeCount(),
+                (System.nanoTime() - start) / 1000000);
+
+        GraphNode<Integer> source = g.getNodeAtIndex(0);
+        //esecuzione di riscaldamento, non misurata.
+        new PrimMSP<Integer>().computeMSP(g, source);
+        double weight = treeWeight(g);
+        long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            PrimMSP<Integer> prim = new PrimMSP<Integer>();
+            start = System.nanoTime();
+            prim.computeMSP(g, source);
+            times[i] = System.nanoTime() - start;
+            if (treeWeight(g) != weight)
+                throw new IllegalStateException("alberi diversi");
+        }
+        Arrays.sort(times);
+        System.out.printf("computeMSP: min %d ms, mediana %d ms, peso %.1f%n",
+                times[0] / 1000000, times[runs / 2] / 1000000, weight);
+    }
+
+    /*
+     * Crea un grafo connesso con il numero di nodi e di archi richiesti: prima
+     * un albero casuale che collega tutti i nodi, poi archi casuali tra coppie
+     * di nodi distinte non ancora collegate. I pesi sono interi tra 0 e 999.
+     */
+    private static SparseUndirectedGraph<Integer> randomGraph(int nodes,
+            int edges, long seed) {
+        Random random = new Random(seed);
+        SparseUndirectedGraph<Integer> g = new SparseUndirectedGraph<Integer>();
+        for (int i = 0; i < nodes; i++)
+            g.addNode(new GraphNode<Integer>(i));
+        for (int i = 1; i < nodes; i++)
+            g.addEdge(new GraphEdge<Integer>(g.getNodeAtIndex(i),
+                    g.getNodeAtIndex(random.nextInt(i)), false,
+                    random.nextInt(1000)));
+        while (g.edgeCount() < edges) {
+            int i = random.nextInt(nodes);
+            int j = random.nextInt(nodes);
+            if (i != j)
+                g.addEdge(new GraphEdge<Integer>(g.getNodeAtIndex(i),
+                        g.getNodeAtIndex(j), false, random.nextInt(1000)));
+        }
+        return g;
+    }
+
+    /*
+     * Somma i pesi degli archi tra ogni nodo e il suo precedente nell'albero
+     * calcolato.
+     */
+    private static double treeWeight(SparseUndirectedGraph<Integer> g) {
+        double weight = 0;
+        for (GraphNode<Integer> v : g.getNodes()) {
+            GraphNode<Integer> p = v.getPrevious();
+            if (p == null)
+                continue;
+            double min = Double.MAX_VALUE;
+            for (GraphEdge<Integer> e : g.getEdgesOf(v))
+                if ((e.getNode1() == p || e.getNode2() == p)
+                        && e.getWeight() < min)
+                    min = e.getWeight();
+            weight += min;
+        }
+        return weight;
+    }
+
+    /*
+     * Grafo non orientato rappresentato con liste di adiacenza: a ogni nodo è
+     * associato l'insieme dei suoi archi. Come AdjacencyMatrixUndirectedGraph
+     * non supporta la cancellazione di nodi e archi.
+     */
+    private static class SparseUndirectedGraph<L> extends Graph<L> {
+
+        // associazione di ogni nodo con l'insieme dei suoi archi
+        private final Map<GraphNode<L>, Set<GraphEdge<L>>> adjacency;
+
+        // nodi in ordine di inserimento, la posizione è l'indice del nodo
+        private final ArrayList<GraphNode<L>> nodes;
+
+        // associazione di ogni etichetta con il proprio nodo
+        private final Map<L, GraphNode<L>> labels;
+
+        // insieme di tutti gli archi
+        private final Set<GraphEdge<L>> edges;
+
+        SparseUndirectedGraph() {
+            this.adjacency = new HashMap<GraphNode<L>, Set<GraphEdge<L>>>();
+            this.nodes = new ArrayList<GraphNode<L>>();
+            this.labels = new HashMap<L, GraphNode<L>>();
+            this.edges = new HashSet<GraphEdge<L>>();
+        }
+
+        @Override
+        public int nodeCount() {
+            return nodes.size();
+        }
+
+        @Override
+        public int edgeCount() {
+            return edges.size();
+        }
+
+        @Override
+        public void clear() {
+            adjacency.clear();
+            nodes.clear();
+            labels.clear();
+            edges.clear();
+        }
+
+        @Override
+        public boolean isDirected() {
+            return false;
+        }
+
+        @Override
+        public Set<GraphNode<L>> getNodes() {
+            return adjacency.keySet();
+        }
+
+        @Override
+        public boolean addNode(GraphNode<L> node) {
+            if (node == null)
+                throw new NullPointerException("nodo nullo");
+            if (adjacency.containsKey(node))
+                return false;
+            adjacency.put(node, new HashSet<GraphEdge<L>>());
+            nodes.add(node);
+            labels.put(node.getLabel(), node);
+            return true;
+        }
+
+        @Override
+        public boolean removeNode(GraphNode<L> node) {
+            throw new UnsupportedOperationException(
+                    "Remove di nodi non supportata");
+        }
+
+        @Override
+        public boolean containsNode(GraphNode<L> node) {
+            if (node == null)
+                throw new NullPointerException("nodo nullo");
+            return adjacency.containsKey(node);
+        }
+
+        @Override
+        public GraphNode<L> getNodeOf(L label) {
+            if (label == null)
+                throw new NullPointerException("etichetta nulla");
+            return labels.get(label);
+        }
+
+        @Override
+        public int getNodeIndexOf(L label) {
+            GraphNode<L> node = getNodeOf(label);
+            if (node == null)
+                throw new IllegalArgumentException("nodo inesistente");
+            return nodes.indexOf(node);
+        }
+
+        @Override
+        public GraphNode<L> getNodeAtIndex(int i) {
+            if (i < 0 || i >= nodes.size())
+                throw new IndexOutOfBoundsException("not ok");
+            return nodes.get(i);
+        }
+
+        @Override
+        public Set<GraphNode<L>> getAdjacentNodesOf(GraphNode<L> node) {
+            Set<GraphNode<L>> adjacentNodes = new HashSet<GraphNode<L>>();
+            for (GraphEdge<L> e : getEdgesOf(node))
+                adjacentNodes.add(e.getNode1().equals(node) ? e.getNode2()
+                        : e.getNode1());
+            return adjacentNodes;
+        }
+
+        @Override
+        public Set<GraphNode<L>> getPredecessorNodesOf(GraphNode<L> node) {
+            throw new UnsupportedOperationException(
+                    "Operazione non supportata in un grafo non orientato");
+        }
+
+        @Override
+        public Set<GraphEdge<L>> getEdges() {
+            return edges;
+        }
+
+        @Override
+        public boolean addEdge(GraphEdge<L> edge) {
+            if (edge == null)
+                throw new NullPointerException("arco nullo");
+            if (!adjacency.containsKey(edge.getNode1())
+                    || !adjacency.containsKey(edge.getNode2()))
+                throw new IllegalArgumentException("not ok");
+            if (edge.isDirected())
+                throw new IllegalArgumentException("arco orientato");
+            if (!edges.add(edge))
+                return false;
+            adjacency.get(edge.getNode1()).add(edge);
+            adjacency.get(edge.getNode2()).add(edge);
+            return true;
+        }
+
+        @Override
+        public boolean removeEdge(GraphEdge<L> edge) {
+            throw new UnsupportedOperationException(
+                    "Operazione di remove non supportata in questa classe");
+        }
+
+        @Override
+        public boolean containsEdge(GraphEdge<L> edge) {
+            if (edge == null)
+                throw new NullPointerException("arco nullo");
+            return edges.contains(edge);
+        }
+
+        @Override
+        public Set<GraphEdge<L>> getEdgesOf(GraphNode<L> node) {
+            if (node == null)
+                throw new NullPointerException("nodo nullo");
+            Set<GraphEdge<L>> nodeEdges = adjacency.get(node);
+            if (nodeEdges == null)
+                throw new IllegalArgumentException("nodo inesistente");
+            return nodeEdges;
+        }
+
+        @Override
+        public Set<GraphEdge<L>> getIngoingEdgesOf(GraphNode<L> node) {
+            throw new UnsupportedOperationException(
+                    "Operazione non supportata in un grafo non orientato");
+        }
+    }
+}
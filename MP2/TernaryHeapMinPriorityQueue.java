@@ -1,6 +1,7 @@
 package it.unicam.cs.asdl2021.mp2;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.NoSuchElementException;
 
 /**
@@ -33,6 +34,25 @@ public class TernaryHeapMinPriorityQueue {
         this.heap = new ArrayList<PriorityQueueElement>();
     }
 
+    /**
+     * Create a queue containing the given elements. The ternary heap is built
+     * bottom-up in O(n) time, instead of inserting the elements one at a time
+     * in O(n log n) time. The handles of the elements are set accordingly.
+     * 
+     * @param elements
+     *                     the elements to put in the new queue
+     * @throws NullPointerException
+     *                                  if the collection or one of its
+     *                                  elements is null
+     */
+    public TernaryHeapMinPriorityQueue(
+            Collection<? extends PriorityQueueElement> elements) {
+        if (elements == null)
+            throw new NullPointerException("the collection is null");
+        this.heap = new ArrayList<PriorityQueueElement>(elements.size());
+        insertAll(elements);
+    }
+
     /**
      * Return the current size of this queue.
      * 
@@ -56,20 +76,48 @@ public class TernaryHeapMinPriorityQueue {
     public void insert(PriorityQueueElement element) {
         if (element == null)
             throw new NullPointerException("the element is null");
-        //caso 1 - lo heap è vuoto. aggiungo l'elemento e setto la handle nella posizione 0.
-        if (this.heap.isEmpty()) {
-            this.heap.add(element);
-            element.setHandle(0);
+        //inserisco l'elemento in fondo, setto la handle all'ultima posizione
+        //e lo faccio risalire fino a ricostruire un min-heap.
+        this.heap.add(element);
+        element.setHandle(this.heap.size() - 1);
+        siftUp(element.getHandle());
+    }
+
+    /**
+     * Add all the given elements to this min-priority queue. When the new
+     * elements are at least as many as the ones already present, they are
+     * appended to the ternary heap and the whole heap is rebuilt bottom-up in
+     * O(n) time; otherwise they are inserted one at a time. The handles of the
+     * elements are set accordingly. If the collection contains a null element
+     * this min-priority queue is not changed.
+     * 
+     * @param elements
+     *                     the new elements to add
+     * @throws NullPointerException
+     *                                  if the collection or one of its
+     *                                  elements is null
+     */
+    public void insertAll(Collection<? extends PriorityQueueElement> elements) {
+        if (elements == null)
+            throw new NullPointerException("the collection is null");
+        for (PriorityQueueElement element : elements)
+            if (element == null)
+                throw new NullPointerException("the element is null");
+        if (elements.size() < this.heap.size()) {
+            for (PriorityQueueElement element : elements)
+                insert(element);
+            return;
         }
-        //caso 2 - lo heap ha gia elementi. inserisco l'elemento in fondo e controllo se deve essere scambiato
-        // in base alla priorità.
-        else {
+        //aggiungo gli elementi in fondo e setto le handle.
+        this.heap.ensureCapacity(this.heap.size() + elements.size());
+        for (PriorityQueueElement element : elements) {
             this.heap.add(element);
-            //setto la handle all'ultimo nodo dove è stato inserito l'elemento.
             element.setHandle(this.heap.size() - 1);
-            //decremento la priorità fino a ricostriure un min-heap.
-            decreasePriority(element, element.getPriority());
         }
+        //ricostruisco il min-heap dal basso: le foglie sono già min-heap,
+        //quindi parto dal padre dell'ultima foglia e risalgo fino alla radice.
+        for (int i = parent(this.heap.size() - 1); i >= 0; i--)
+            minHeapify(i);
     }
 
     /**
@@ -102,8 +150,8 @@ public class TernaryHeapMinPriorityQueue {
         PriorityQueueElement min = this.heap.get(0);
         //l'ultima foglia la metto all'inizio e viceversa
         swap(0, heap.size() - 1);
-        //rimuovo il nodo da estrarre, ovvero la foglia piu piccola
-        this.heap.remove(min);
+        //rimuovo il nodo da estrarre, che ora è l'ultima foglia, senza cercarlo nella lista.
+        this.heap.remove(this.heap.size() - 1);
         //controllo se lo heap è min-heap.
         this.minHeapify(0);
         return min;
@@ -131,17 +179,117 @@ public class TernaryHeapMinPriorityQueue {
      */
     public void decreasePriority(PriorityQueueElement element,
             double newPriority) {
-        if(!heap.contains(element))
+        if(!contains(element))
             throw new NoSuchElementException("the element doesn't exists");
         if(element.getPriority() < newPriority)
             throw new IllegalArgumentException("the new priority has incorrect.");
         //setto la priorità dell'elemento a quella nuova
         element.setPriority(newPriority);
-        //salvo l'indice del padre dell'elemento
-        int indexOfPadre = parent(element.getHandle());
-        //Ricostruisco min-heap con il nuovo elemento
-        for (int i = indexOfPadre; i >= 0; i--)
-            minHeapify(i);
+        //faccio risalire l'elemento lungo i suoi antenati fino a ricostruire un min-heap.
+        siftUp(element.getHandle());
+    }
+
+    /**
+     * Increase the priority associated to an element of this min-priority
+     * queue. The position of the element in the ternary heap must be changed
+     * accordingly: the element moves towards the leaves. The handle of the
+     * element will also be changed accordingly.
+     * 
+     * @param element
+     *                        the element whose priority will be increased, it
+     *                        must currently be inside this min-priority queue
+     * @param newPriority
+     *                        the new priority to assign to the element
+     * 
+     * @throws NoSuchElementException
+     *                                      if the element is not currently
+     *                                      present in this min-priority queue
+     * @throws IllegalArgumentException
+     *                                      if the specified newPriority is
+     *                                      less than the current priority of
+     *                                      the element
+     */
+    public void increasePriority(PriorityQueueElement element,
+            double newPriority) {
+        if(!contains(element))
+            throw new NoSuchElementException("the element doesn't exists");
+        if(element.getPriority() > newPriority)
+            throw new IllegalArgumentException("the new priority has incorrect.");
+        element.setPriority(newPriority);
+        //faccio scendere l'elemento verso le foglie.
+        minHeapify(element.getHandle());
+    }
+
+    /**
+     * Change the priority associated to an element of this min-priority
+     * queue, moving the element towards the root or towards the leaves as
+     * needed. The handle of the element will also be changed accordingly.
+     * 
+     * @param element
+     *                        the element whose priority will be changed, it
+     *                        must currently be inside this min-priority queue
+     * @param newPriority
+     *                        the new priority to assign to the element
+     * 
+     * @throws NoSuchElementException
+     *                                      if the element is not currently
+     *                                      present in this min-priority queue
+     */
+    public void changePriority(PriorityQueueElement element,
+            double newPriority) {
+        if(!contains(element))
+            throw new NoSuchElementException("the element doesn't exists");
+        double oldPriority = element.getPriority();
+        element.setPriority(newPriority);
+        if(newPriority < oldPriority)
+            siftUp(element.getHandle());
+        else
+            minHeapify(element.getHandle());
+    }
+
+    /**
+     * Remove an element from this min-priority queue in O(log n) time, using
+     * its handle to find it.
+     * 
+     * @param element
+     *                    the element to remove, it must currently be inside
+     *                    this min-priority queue
+     * 
+     * @throws NoSuchElementException
+     *                                    if the element is not currently
+     *                                    present in this min-priority queue
+     */
+    public void delete(PriorityQueueElement element) {
+        if(!contains(element))
+            throw new NoSuchElementException("the element doesn't exists");
+        int i = element.getHandle();
+        int last = this.heap.size() - 1;
+        //metto l'ultima foglia al posto dell'elemento e tolgo l'elemento dal fondo.
+        swap(i, last);
+        this.heap.remove(last);
+        //la foglia spostata può dover salire o scendere.
+        if(i < last) {
+            PriorityQueueElement moved = this.heap.get(i);
+            siftUp(i);
+            minHeapify(moved.getHandle());
+        }
+    }
+
+    /**
+     * Check in constant time, using its handle, if an element is currently
+     * inside this min-priority queue.
+     * 
+     * @param element
+     *                    the element to search
+     * @return true if the element is inside this min-priority queue, false
+     *         otherwise
+     */
+    public boolean contains(PriorityQueueElement element) {
+        if(element == null)
+            return false;
+        int handle = element.getHandle();
+        //la handle può essere vecchia: controllo che nella posizione ci sia proprio l'elemento.
+        return handle >= 0 && handle < this.heap.size() && this.heap.get(handle) == element;
     }
 
     /**
@@ -225,6 +373,20 @@ public class TernaryHeapMinPriorityQueue {
         }
     }
 
+    /**
+     * fa risalire il nodo verso la radice finchè la sua priorità è minore di
+     * quella del padre. visita solo gli antenati del nodo, quindi richiede
+     * tempo O(log n).
+     *
+     * @param i indice del nodo
+     */
+    private void siftUp(int i){
+        while(i > 0 && this.heap.get(parent(i)).getPriority() > this.heap.get(i).getPriority()){
+            swap(i, parent(i));
+            i = parent(i);
+        }
+    }
+
     private void swap(int a, int b){
         //salvo i nodi corrispondenti agli indici dati.
         PriorityQueueElement element1To2 = this.heap.get(a);